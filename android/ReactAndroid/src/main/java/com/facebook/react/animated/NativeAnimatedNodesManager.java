@@ -24,14 +24,12 @@ import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.events.Event;
 import com.facebook.react.uimanager.events.EventDispatcherListener;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.Queue;
 
 import javax.annotation.Nullable;
 
@@ -55,12 +53,15 @@ import javax.annotation.Nullable;
   private final SparseArray<AnimatedNode> mUpdatedNodes = new SparseArray<>();
   // Mapping of a view tag and an event name to a list of event animation drivers. 99% of the time
   // there will be only one driver per mapping so all code code should be optimized around that.
-  private final Map<String, List<EventAnimationDriver>> mEventDrivers = new HashMap<>();
+  // Drivers are looked up by view tag first so that handling an event doesn't build a string key.
+  private final SparseArray<Map<String, List<EventAnimationDriver>>> mEventDrivers = new SparseArray<>();
   private final UIManagerModule.CustomEventNamesResolver mCustomEventNamesResolver;
   private final UIImplementation mUIImplementation;
   private int mAnimatedGraphBFSColor = 0;
   // Used to avoid allocating a new array on every frame in `runUpdates` and `onEventDispatch`.
-  private final List<AnimatedNode> mRunUpdateNodeList = new LinkedList<>();
+  private final List<AnimatedNode> mRunUpdateNodeList = new ArrayList<>();
+  // Used to avoid allocating a new queue for each of the BFSes in `updateNodes`.
+  private final NodesQueue mNodesQueue = new NodesQueue();
 
   public NativeAnimatedNodesManager(UIManagerModule uiManager) {
     mUIImplementation = uiManager.getUIImplementation();
@@ -356,22 +357,28 @@ import javax.annotation.Nullable;
     }
 
     EventAnimationDriver event = new EventAnimationDriver(pathList, (ValueAnimatedNode) node);
-    String key = viewTag + eventName;
-    if (mEventDrivers.containsKey(key)) {
-      mEventDrivers.get(key).add(event);
-    } else {
-      List<EventAnimationDriver> drivers = new ArrayList<>(1);
-      drivers.add(event);
-      mEventDrivers.put(key, drivers);
+    Map<String, List<EventAnimationDriver>> driversForView = mEventDrivers.get(viewTag);
+    if (driversForView == null) {
+      driversForView = new HashMap<>(1);
+      mEventDrivers.put(viewTag, driversForView);
+    }
+    List<EventAnimationDriver> drivers = driversForView.get(eventName);
+    if (drivers == null) {
+      drivers = new ArrayList<>(1);
+      driversForView.put(eventName, drivers);
     }
+    drivers.add(event);
   }
 
   public void removeAnimatedEventFromView(int viewTag, String eventName, int animatedValueTag) {
-    String key = viewTag + eventName;
-    if (mEventDrivers.containsKey(key)) {
-      List<EventAnimationDriver> driversForKey = mEventDrivers.get(key);
+    Map<String, List<EventAnimationDriver>> driversForView = mEventDrivers.get(viewTag);
+    if (driversForView != null && driversForView.containsKey(eventName)) {
+      List<EventAnimationDriver> driversForKey = driversForView.get(eventName);
       if (driversForKey.size() == 1) {
-        mEventDrivers.remove(viewTag + eventName);
+        driversForView.remove(eventName);
+        if (driversForView.isEmpty()) {
+          mEventDrivers.remove(viewTag);
+        }
       } else {
         ListIterator<EventAnimationDriver> it = driversForKey.listIterator();
         while (it.hasNext()) {
@@ -401,12 +408,14 @@ import javax.annotation.Nullable;
   }
 
   private void handleEvent(Event event) {
-    if (!mEventDrivers.isEmpty()) {
+    Map<String, List<EventAnimationDriver>> driversForView = mEventDrivers.get(event.getViewTag());
+    if (driversForView != null) {
       // If the event has a different name in native convert it to it's JS name.
       String eventName = mCustomEventNamesResolver.resolveCustomEventName(event.getEventName());
-      List<EventAnimationDriver> driversForKey = mEventDrivers.get(event.getViewTag() + eventName);
+      List<EventAnimationDriver> driversForKey = driversForView.get(eventName);
       if (driversForKey != null) {
-        for (EventAnimationDriver driver : driversForKey) {
+        for (int i = 0; i < driversForKey.size(); i++) {
+          EventAnimationDriver driver = driversForKey.get(i);
           stopAnimationsForNode(driver.mValueNode);
           event.dispatch(driver);
           mRunUpdateNodeList.add(driver.mValueNode);
@@ -487,8 +496,10 @@ import javax.annotation.Nullable;
       mAnimatedGraphBFSColor++;
     }
 
-    Queue<AnimatedNode> nodesQueue = new ArrayDeque<>();
-    for (AnimatedNode node : nodes) {
+    NodesQueue nodesQueue = mNodesQueue;
+    nodesQueue.clear();
+    for (int j = 0; j < nodes.size(); j++) {
+      AnimatedNode node = nodes.get(j);
       if (node.mBFSColor != mAnimatedGraphBFSColor) {
         node.mBFSColor = mAnimatedGraphBFSColor;
         activeNodesCount++;
@@ -527,7 +538,9 @@ import javax.annotation.Nullable;
 
     // find nodes with zero "incoming nodes", those can be either nodes from `mUpdatedNodes` or
     // ones connected to active animations
-    for (AnimatedNode node : nodes) {
+    nodesQueue.clear();
+    for (int j = 0; j < nodes.size(); j++) {
+      AnimatedNode node = nodes.get(j);
       if (node.mActiveIncomingNodes == 0 && node.mBFSColor != mAnimatedGraphBFSColor) {
         node.mBFSColor = mAnimatedGraphBFSColor;
         updatedNodesCount++;
@@ -579,4 +592,37 @@ import javax.annotation.Nullable;
         + activeNodesCount + " but toposort visited only " + updatedNodesCount);
     }
   }
+
+  /**
+   * FIFO queue of nodes backed by an array that is kept between frames. Each BFS adds every node at
+   * most once, so the array only grows up to the number of active nodes and never has to wrap.
+   */
+  private static class NodesQueue {
+    private AnimatedNode[] mNodes = new AnimatedNode[16];
+    private int mHead = 0;
+    private int mTail = 0;
+
+    void add(AnimatedNode node) {
+      if (mTail == mNodes.length) {
+        mNodes = Arrays.copyOf(mNodes, mNodes.length * 2);
+      }
+      mNodes[mTail++] = node;
+    }
+
+    AnimatedNode poll() {
+      AnimatedNode node = mNodes[mHead];
+      mNodes[mHead++] = null;
+      return node;
+    }
+
+    boolean isEmpty() {
+      return mHead == mTail;
+    }
+
+    void clear() {
+      Arrays.fill(mNodes, mHead, mTail, null);
+      mHead = 0;
+      mTail = 0;
+    }
+  }
 }
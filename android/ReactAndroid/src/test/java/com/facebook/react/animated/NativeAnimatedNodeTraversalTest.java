@@ -940,6 +940,79 @@ public class NativeAnimatedNodeTraversalTest {
     };
   }
 
+  /**
+   * Generates a graph in which a single value node (1) drives {@param viewsCount} views, each one
+   * through its own style and props nodes, so the graph has 2 * {@param viewsCount} + 1 nodes.
+   * Views get tags starting from 1000.
+   */
+  private void createAnimatedGraphWithManyViews(int viewsCount) {
+    mNativeAnimatedNodesManager.createAnimatedNode(
+      1,
+      JavaOnlyMap.of("type", "value", "value", 0d, "offset", 0d));
+    for (int i = 0; i < viewsCount; i++) {
+      int styleTag = 2 + 2 * i;
+      int propsTag = styleTag + 1;
+      mNativeAnimatedNodesManager.createAnimatedNode(
+        styleTag,
+        JavaOnlyMap.of("type", "style", "style", JavaOnlyMap.of("opacity", 1)));
+      mNativeAnimatedNodesManager.createAnimatedNode(
+        propsTag,
+        JavaOnlyMap.of("type", "props", "props", JavaOnlyMap.of("style", styleTag)));
+      mNativeAnimatedNodesManager.connectAnimatedNodes(1, styleTag);
+      mNativeAnimatedNodesManager.connectAnimatedNodes(styleTag, propsTag);
+      mNativeAnimatedNodesManager.connectAnimatedNodeToView(propsTag, 1000 + i);
+    }
+  }
+
+  private void runFramesAnimationOnManyViews(int viewsCount) {
+    createAnimatedGraphWithManyViews(viewsCount);
+
+    int framesCount = 100;
+    JavaOnlyArray frames = new JavaOnlyArray();
+    for (int i = 0; i < framesCount; i++) {
+      frames.pushDouble((double) i / (framesCount - 1));
+    }
+    Callback animationCallback = mock(Callback.class);
+    mNativeAnimatedNodesManager.startAnimatingNode(
+      1,
+      1,
+      JavaOnlyMap.of("type", "frames", "frames", frames, "toValue", 1d),
+      animationCallback);
+
+    ArgumentCaptor<ReactStylesDiffMap> stylesCaptor =
+        ArgumentCaptor.forClass(ReactStylesDiffMap.class);
+
+    for (int i = 0; i < framesCount; i++) {
+      reset(mUIImplementationMock);
+      mNativeAnimatedNodesManager.runUpdates(nextFrameTime());
+      verify(mUIImplementationMock, times(viewsCount))
+          .synchronouslyUpdateViewOnUIThread(anyInt(), stylesCaptor.capture());
+      assertThat(stylesCaptor.getValue().getDouble("opacity", Double.NaN))
+          .isEqualTo(frames.getDouble(i));
+    }
+
+    reset(mUIImplementationMock);
+    mNativeAnimatedNodesManager.runUpdates(nextFrameTime());
+    verifyNoMoreInteractions(mUIImplementationMock);
+  }
+
+  /**
+   * Runs a frames animation on a graph of about 100 nodes, which makes sure that buffers
+   * reused across frames by {@link NativeAnimatedNodesManager#runUpdates} grow and reset correctly.
+   */
+  @Test
+  public void testFramesAnimationOnGraphOf100Nodes() {
+    runFramesAnimationOnManyViews(50);
+  }
+
+  /**
+   * Same as {@link #testFramesAnimationOnGraphOf100Nodes} with a graph of about 1000 nodes.
+   */
+  @Test
+  public void testFramesAnimationOnGraphOf1000Nodes() {
+    runFramesAnimationOnManyViews(500);
+  }
+
   @Test
   public void testNativeAnimatedEventDoUpdate() {
     int viewTag = 1000;
@@ -36,6 +36,9 @@
 -keepclassmembers class * {
   @org.unimodules.core.interfaces.ExpoMethod *;
 }
+-keep class * implements org.unimodules.core.ExportedMethodsDispatcher {
+  <init>();
+}
 
 -keepclassmembers class * {
   @**.expo.core.interfaces.ExpoProp *;
@@ -116,6 +116,7 @@ public class ReactNativeStaticHelpers {
           .readTimeout(0, TimeUnit.MILLISECONDS)
           .writeTimeout(0, TimeUnit.MILLISECONDS)
           .cookieJar((CookieJar) cookieJar)
+          .connectionPool(sExponentNetwork.getConnectionPool())
           .cache(sExponentNetwork.getCache());
 
       sExponentNetwork.addInterceptors(client);
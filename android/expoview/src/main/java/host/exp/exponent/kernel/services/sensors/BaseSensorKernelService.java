@@ -11,8 +11,12 @@ import android.hardware.SensorManager;
 import host.exp.exponent.kernel.services.BaseKernelService;
 
 public abstract class BaseSensorKernelService extends BaseKernelService implements SensorEventListener {
+  // Sampling periods this short are better served by the fastest rate the sensor supports
+  private static final int MIN_SAMPLING_PERIOD_US = 1000;
+
   private Sensor mSensor;
   private SensorManager mSensorManager;
+  private int mSamplingPeriodUs;
 
   BaseSensorKernelService(Context reactContext) {
     super(reactContext);
@@ -26,13 +30,41 @@ public abstract class BaseSensorKernelService extends BaseKernelService implemen
   // Public API
 
   protected void startObserving() {
+    startObserving(SensorManager.SENSOR_DELAY_FASTEST);
+  }
+
+  /**
+   * Registers for sensor updates at the given sampling period, re-registering only if the period has changed.
+   */
+  protected void startObserving(int samplingPeriodUs) {
+    if (mSensor != null) {
+      if (mSamplingPeriodUs == samplingPeriodUs) {
+        return;
+      }
+      mSensorManager.unregisterListener(this);
+    }
     if ((mSensor = mSensorManager.getDefaultSensor(getSensorType())) != null) {
-      mSensorManager.registerListener(this, mSensor, SensorManager.SENSOR_DELAY_FASTEST);
+      mSensorManager.registerListener(this, mSensor, samplingPeriodUs);
+      mSamplingPeriodUs = samplingPeriodUs;
     }
   }
 
   protected void stopObserving() {
     mSensorManager.unregisterListener(this);
+    mSensor = null;
+  }
+
+  /**
+   * Returns a sampling period which delivers at least one sample per update interval. Samples are requested
+   * twice as often as the interval, since their delivery is not exactly periodic and subscriptions throttled
+   * to the interval would otherwise drop every other one.
+   */
+  static int getSamplingPeriodUs(long updateIntervalMs) {
+    long samplingPeriodUs = updateIntervalMs * 1000 / 2;
+    if (samplingPeriodUs < MIN_SAMPLING_PERIOD_US) {
+      return SensorManager.SENSOR_DELAY_FASTEST;
+    }
+    return (int) Math.min(samplingPeriodUs, Integer.MAX_VALUE);
   }
 
   // android.hardware.SensorEventListener
@@ -2,13 +2,18 @@
 
 package host.exp.exponent.kernel.services.sensors;
 
+import java.util.concurrent.TimeUnit;
+
 import host.exp.exponent.kernel.ExperienceId;
 
 public class SensorKernelServiceSubscription {
-  private boolean mIsEnabled = false;
-  private Long mUpdateInterval = null;
+  private volatile boolean mIsEnabled = false;
+  private volatile Long mUpdateInterval = null;
+  private volatile long mUpdateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(SubscribableSensorKernelService.DEFAULT_UPDATE_INTERVAL);
+  // Timestamp of the last event passed to the listener, only accessed from the sensor thread
+  private long mLastUpdateTimestamp = 0;
   private final ExperienceId mExperienceId;
-  private boolean mHasBeenReleased = false;
+  private volatile boolean mHasBeenReleased = false;
   private final SubscribableSensorKernelService mSubscribableSensorKernelService;
   private final SensorEventListener mSensorEventListener;
 
@@ -42,9 +47,23 @@ public class SensorKernelServiceSubscription {
     return mSensorEventListener;
   }
 
+  long getUpdateIntervalNanos() {
+    return mUpdateIntervalNanos;
+  }
+
+  long getLastUpdateTimestamp() {
+    return mLastUpdateTimestamp;
+  }
+
+  void setLastUpdateTimestamp(long timestamp) {
+    mLastUpdateTimestamp = timestamp;
+  }
+
   public void setUpdateInterval(long updateInterval) {
     assertSubscriptionIsAlive();
     mUpdateInterval = updateInterval;
+    mUpdateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(updateInterval);
+    mSubscribableSensorKernelService.onSubscriptionUpdateIntervalChanged(this);
   }
 
   public void stop() {
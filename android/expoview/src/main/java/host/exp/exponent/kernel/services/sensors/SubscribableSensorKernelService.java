@@ -10,16 +10,20 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import host.exp.exponent.kernel.ExperienceId;
 
 public abstract class SubscribableSensorKernelService extends BaseSensorKernelService {
   protected static int DEFAULT_UPDATE_INTERVAL = 100;
 
-  private Map<ExperienceId, Integer> mExperienceIdListenersCountMap = new HashMap<>();
-  private Map<SensorKernelServiceSubscription, Long> mSensorEventListenerLastUpdateMap = new WeakHashMap<>();
-  private Map<ExperienceId, List<WeakReference<SensorKernelServiceSubscription>>> mExperienceIdSubscriptionsMap = new HashMap<>();
+  @SuppressWarnings("unchecked")
+  private static final WeakReference<SensorKernelServiceSubscription>[] NO_SUBSCRIPTIONS = new WeakReference[0];
+
+  private final Map<ExperienceId, Integer> mExperienceIdListenersCountMap = new HashMap<>();
+  // Arrays are never modified once put into the map, so the sensor thread can iterate them without locking.
+  // Modifications replace the whole array while holding the lock on this service.
+  private final Map<ExperienceId, WeakReference<SensorKernelServiceSubscription>[]> mExperienceIdSubscriptionsMap = new ConcurrentHashMap<>();
 
   SubscribableSensorKernelService(Context reactContext) {
     super(reactContext);
@@ -39,29 +43,23 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
 
   @Override
   public void onSensorDataChanged(SensorEvent sensorEvent) {
-    long currentTime = System.currentTimeMillis();
     ExperienceId currentExperienceId = getCurrentExperienceId();
-    List<WeakReference<SensorKernelServiceSubscription>> listeners = mExperienceIdSubscriptionsMap.get(currentExperienceId);
-
-    if (listeners != null) {
-      for(WeakReference<SensorKernelServiceSubscription> weakReference : listeners) {
-        final SensorKernelServiceSubscription sensorKernelServiceSubscription = weakReference.get();
-        if (sensorKernelServiceSubscription != null && sensorKernelServiceSubscription.isEnabled()) {
-          long lastUpdate = 0;
-          if (mSensorEventListenerLastUpdateMap.containsKey(sensorKernelServiceSubscription)) {
-            lastUpdate = mSensorEventListenerLastUpdateMap.get(sensorKernelServiceSubscription);
-          }
-
-          long updateInterval = DEFAULT_UPDATE_INTERVAL;
-          if (sensorKernelServiceSubscription.getUpdateInterval() != null) {
-            updateInterval = sensorKernelServiceSubscription.getUpdateInterval();
-          }
-
-
-          if ((currentTime - lastUpdate) > updateInterval) {
-            sensorKernelServiceSubscription.getSensorEventListener().onSensorDataChanged(sensorEvent);
-            mSensorEventListenerLastUpdateMap.put(sensorKernelServiceSubscription, currentTime);
-          }
+    if (currentExperienceId == null) {
+      return;
+    }
+
+    WeakReference<SensorKernelServiceSubscription>[] subscriptions = mExperienceIdSubscriptionsMap.get(currentExperienceId);
+    if (subscriptions == null) {
+      return;
+    }
+
+    long timestamp = sensorEvent.timestamp;
+    for (WeakReference<SensorKernelServiceSubscription> weakReference : subscriptions) {
+      SensorKernelServiceSubscription subscription = weakReference.get();
+      if (subscription != null && subscription.isEnabled()) {
+        if (timestamp - subscription.getLastUpdateTimestamp() > subscription.getUpdateIntervalNanos()) {
+          subscription.setLastUpdateTimestamp(timestamp);
+          subscription.getSensorEventListener().onSensorDataChanged(sensorEvent);
         }
       }
     }
@@ -69,38 +67,36 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
 
   // Modules API
 
-  public SensorKernelServiceSubscription createSubscriptionForListener(ExperienceId experienceId, SensorEventListener listener) {
+  public synchronized SensorKernelServiceSubscription createSubscriptionForListener(ExperienceId experienceId, SensorEventListener listener) {
     SensorKernelServiceSubscription sensorKernelServiceSubscription = new SensorKernelServiceSubscription(experienceId, this, listener);
-    if (!mExperienceIdSubscriptionsMap.containsKey(experienceId)) {
-      mExperienceIdSubscriptionsMap.put(experienceId, new ArrayList<WeakReference<SensorKernelServiceSubscription>>());
+    WeakReference<SensorKernelServiceSubscription>[] subscriptions = getSubscriptions(experienceId);
+    List<WeakReference<SensorKernelServiceSubscription>> newSubscriptions = new ArrayList<>(subscriptions.length + 1);
+    for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : subscriptions) {
+      if (subscriptionWeakReference.get() != null) {
+        newSubscriptions.add(subscriptionWeakReference);
+      }
     }
-    mExperienceIdSubscriptionsMap.get(experienceId).add(new WeakReference<>(sensorKernelServiceSubscription));
+    newSubscriptions.add(new WeakReference<>(sensorKernelServiceSubscription));
+    putSubscriptions(experienceId, newSubscriptions);
     return sensorKernelServiceSubscription;
   }
 
-  public void removeSubscription(SensorKernelServiceSubscription subscriptionToRemove) {
-    mSensorEventListenerLastUpdateMap.remove(subscriptionToRemove);
+  public synchronized void removeSubscription(SensorKernelServiceSubscription subscriptionToRemove) {
     ExperienceId experienceId = subscriptionToRemove.getExperienceId();
-    if (mExperienceIdSubscriptionsMap.containsKey(experienceId)) {
-      List<WeakReference<SensorKernelServiceSubscription>> originalSubscriptions = mExperienceIdSubscriptionsMap.get(experienceId);
-      List<WeakReference<SensorKernelServiceSubscription>> leftSubscriptions = new ArrayList<>();
-      for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : originalSubscriptions) {
-        SensorKernelServiceSubscription subscription = subscriptionWeakReference.get();
-        if (subscription != null && subscription != subscriptionToRemove) {
-          leftSubscriptions.add(subscriptionWeakReference);
-        }
-      }
-      if (leftSubscriptions.size() > 0) {
-        mExperienceIdSubscriptionsMap.put(experienceId, leftSubscriptions);
-      } else {
-        mExperienceIdSubscriptionsMap.remove(experienceId);
+    WeakReference<SensorKernelServiceSubscription>[] subscriptions = getSubscriptions(experienceId);
+    List<WeakReference<SensorKernelServiceSubscription>> leftSubscriptions = new ArrayList<>(subscriptions.length);
+    for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : subscriptions) {
+      SensorKernelServiceSubscription subscription = subscriptionWeakReference.get();
+      if (subscription != null && subscription != subscriptionToRemove) {
+        leftSubscriptions.add(subscriptionWeakReference);
       }
     }
+    putSubscriptions(experienceId, leftSubscriptions);
   }
 
   // SensorKernelServiceSubscription API
 
-  void onSubscriptionEnabledChanged(SensorKernelServiceSubscription sensorKernelServiceSubscription) {
+  synchronized void onSubscriptionEnabledChanged(SensorKernelServiceSubscription sensorKernelServiceSubscription) {
     ExperienceId experienceId = sensorKernelServiceSubscription.getExperienceId();
     int enabledListenersCount = getEnabledListenersForExperienceId(experienceId);
 
@@ -117,6 +113,12 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
     updateObserving();
   }
 
+  synchronized void onSubscriptionUpdateIntervalChanged(SensorKernelServiceSubscription sensorKernelServiceSubscription) {
+    if (sensorKernelServiceSubscription.isEnabled()) {
+      updateObserving();
+    }
+  }
+
   // android.hardware.SensorEventListener
 
   @Override
@@ -136,31 +138,52 @@ public abstract class SubscribableSensorKernelService extends BaseSensorKernelSe
     return 0;
   }
 
+  private WeakReference<SensorKernelServiceSubscription>[] getSubscriptions(ExperienceId experienceId) {
+    WeakReference<SensorKernelServiceSubscription>[] subscriptions = experienceId != null ? mExperienceIdSubscriptionsMap.get(experienceId) : null;
+    return subscriptions != null ? subscriptions : NO_SUBSCRIPTIONS;
+  }
+
+  private void putSubscriptions(ExperienceId experienceId, List<WeakReference<SensorKernelServiceSubscription>> subscriptions) {
+    if (subscriptions.size() > 0) {
+      mExperienceIdSubscriptionsMap.put(experienceId, subscriptions.toArray(NO_SUBSCRIPTIONS));
+    } else {
+      mExperienceIdSubscriptionsMap.remove(experienceId);
+    }
+  }
+
   private void cleanWeakSubscriptionsList(ExperienceId experienceId) {
-    List<WeakReference<SensorKernelServiceSubscription>> listeners = mExperienceIdSubscriptionsMap.get(experienceId);
-    List<WeakReference<SensorKernelServiceSubscription>> realListeners = new ArrayList<>();
-    if (listeners != null) {
-      for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : listeners) {
-        if (subscriptionWeakReference.get() != null) {
-          realListeners.add(subscriptionWeakReference);
-        }
+    WeakReference<SensorKernelServiceSubscription>[] subscriptions = getSubscriptions(experienceId);
+    List<WeakReference<SensorKernelServiceSubscription>> realSubscriptions = new ArrayList<>(subscriptions.length);
+    for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : subscriptions) {
+      if (subscriptionWeakReference.get() != null) {
+        realSubscriptions.add(subscriptionWeakReference);
       }
     }
 
-    if (realListeners.size() > 0) {
-      mExperienceIdSubscriptionsMap.put(experienceId, realListeners);
-    } else {
-      mExperienceIdSubscriptionsMap.remove(experienceId);
+    if (realSubscriptions.size() != subscriptions.length) {
+      putSubscriptions(experienceId, realSubscriptions);
+    }
+  }
+
+  private long getMinUpdateInterval(ExperienceId experienceId) {
+    long minUpdateInterval = Long.MAX_VALUE;
+    for (WeakReference<SensorKernelServiceSubscription> subscriptionWeakReference : getSubscriptions(experienceId)) {
+      SensorKernelServiceSubscription subscription = subscriptionWeakReference.get();
+      if (subscription != null && subscription.isEnabled()) {
+        Long updateInterval = subscription.getUpdateInterval();
+        minUpdateInterval = Math.min(minUpdateInterval, updateInterval != null ? updateInterval : DEFAULT_UPDATE_INTERVAL);
+      }
     }
+    return minUpdateInterval != Long.MAX_VALUE ? minUpdateInterval : DEFAULT_UPDATE_INTERVAL;
   }
 
-  private void updateObserving() {
+  private synchronized void updateObserving() {
     ExperienceId currentExperienceId = getCurrentExperienceId();
     cleanWeakSubscriptionsList(currentExperienceId);
 
     // Start/stop observing according to the experience state
     if (getEnabledListenersForExperienceId(currentExperienceId) > 0) {
-      super.startObserving();
+      super.startObserving(getSamplingPeriodUs(getMinUpdateInterval(currentExperienceId)));
     } else {
       super.stopObserving();
     }
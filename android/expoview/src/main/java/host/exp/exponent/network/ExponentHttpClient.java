@@ -23,6 +23,7 @@ import okhttp3.CacheControl;
 import okhttp3.Call;
 import okhttp3.Callback;
 import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -44,16 +45,16 @@ public class ExponentHttpClient {
   }
 
   private Context mContext;
-  private ExponentNetwork.OkHttpClientFactory mOkHttpClientFactory;
+  private OkHttpClient mOkHttpClient;
 
-  protected ExponentHttpClient(final Context context, final ExponentSharedPreferences exponentSharedPreferences, final ExponentNetwork.OkHttpClientFactory httpClientFactory) {
+  protected ExponentHttpClient(final Context context, final ExponentSharedPreferences exponentSharedPreferences, final OkHttpClient okHttpClient) {
     mContext = context;
-    mOkHttpClientFactory = httpClientFactory;
+    mOkHttpClient = okHttpClient;
     mExponentSharedPreferences = exponentSharedPreferences;
   }
 
   public void call(final Request request, final ExpoHttpCallback callback) {
-    mOkHttpClientFactory.getNewClient().newCall(request).enqueue(new Callback() {
+    mOkHttpClient.newCall(request).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         callback.onFailure(e);
@@ -69,7 +70,7 @@ public class ExponentHttpClient {
   public void callSafe(final Request request, final SafeCallback callback) {
     final String uri = request.url().toString();
 
-    mOkHttpClientFactory.getNewClient().newCall(request).enqueue(new Callback() {
+    mOkHttpClient.newCall(request).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         tryForcedCachedResponse(uri, request, callback, null, e);
@@ -125,7 +126,7 @@ public class ExponentHttpClient {
         .cacheControl(CacheControl.FORCE_CACHE)
         .header(ExponentNetwork.IGNORE_INTERCEPTORS_HEADER, "blah")
         .build();
-    mOkHttpClientFactory.getNewClient().newCall(newRequest).enqueue(new Callback() {
+    mOkHttpClient.newCall(newRequest).enqueue(new Callback() {
       @Override
       public void onFailure(Call call, IOException e) {
         tryHardCodedResponse(uri, call, callback, initialResponse, initialException);
@@ -18,6 +18,8 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
@@ -37,7 +39,17 @@ public class ExponentNetwork {
   private static final String CACHE_DIR = "okhttp";
   private static final int ONE_YEAR_IN_SECONDS = 60 * 60 * 24 * 365;
 
+  // All of the clients share one connection pool, so that manifest, bundle and asset requests
+  // can reuse warm connections (and HTTP/2 multiplexing and TLS sessions) instead of opening new ones.
+  private static final int MAX_IDLE_CONNECTIONS = 8;
+  private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+  private static final int MAX_REQUESTS = 64;
+  private static final int MAX_REQUESTS_PER_HOST = 8;
+
   private Context mContext;
+  private Cache mCache;
+  private ConnectionPool mConnectionPool;
+  private Dispatcher mDispatcher;
   private ExponentHttpClient mClient;
   private ExponentHttpClient mLongTimeoutClient;
   private OkHttpClient mNoCacheClient;
@@ -47,36 +59,34 @@ public class ExponentNetwork {
     response.body().bytes();
   }
 
-  public interface OkHttpClientFactory {
-    OkHttpClient getNewClient();
-  }
-
   @Inject
   public ExponentNetwork(Context context, ExponentSharedPreferences exponentSharedPreferences) {
     mContext = context.getApplicationContext();
 
-    mClient = new ExponentHttpClient(mContext, exponentSharedPreferences, new OkHttpClientFactory() {
-      @Override
-      public OkHttpClient getNewClient() {
-        return createHttpClientBuilder().build();
-      }
-    });
+    mConnectionPool = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES);
+    mDispatcher = new Dispatcher();
+    mDispatcher.setMaxRequests(MAX_REQUESTS);
+    mDispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
 
-    mLongTimeoutClient = new ExponentHttpClient(mContext, exponentSharedPreferences, new OkHttpClientFactory() {
-      @Override
-      public OkHttpClient getNewClient() {
-        OkHttpClient longTimeoutHttpClient = createHttpClientBuilder()
-            .readTimeout(2, TimeUnit.MINUTES)
-            .build();
-        return longTimeoutHttpClient;
-      }
-    });
+    // Clients derived with newBuilder() share the connection pool, dispatcher, cache and interceptors.
+    OkHttpClient client = createHttpClientBuilder().build();
+    mClient = new ExponentHttpClient(mContext, exponentSharedPreferences, client);
 
-    mNoCacheClient = new OkHttpClient.Builder().build();
+    OkHttpClient longTimeoutHttpClient = client.newBuilder()
+        .readTimeout(2, TimeUnit.MINUTES)
+        .build();
+    mLongTimeoutClient = new ExponentHttpClient(mContext, exponentSharedPreferences, longTimeoutHttpClient);
+
+    mNoCacheClient = new OkHttpClient.Builder()
+        .connectionPool(mConnectionPool)
+        .dispatcher(mDispatcher)
+        .build();
   }
 
   private OkHttpClient.Builder createHttpClientBuilder() {
     OkHttpClient.Builder clientBuilder = new OkHttpClient.Builder()
+        .connectionPool(mConnectionPool)
+        .dispatcher(mDispatcher)
         .cache(getCache());
     if (ExpoViewBuildConfig.DEBUG) {
       // FIXME: 8/9/17
@@ -100,12 +110,27 @@ public class ExponentNetwork {
     return mNoCacheClient;
   }
 
-  public Cache getCache() {
-    int cacheSize = 40 * 1024 * 1024; // 40 MiB
+  // Returns the one cache instance backing the cache directory, OkHttp requires that
+  // there is at most one Cache per directory.
+  public synchronized Cache getCache() {
+    if (mCache == null) {
+      int cacheSize = 40 * 1024 * 1024; // 40 MiB
 
-    // Use getFilesDir() because it gives us much more space than getCacheDir()
-    final File directory = new File(mContext.getFilesDir(), CACHE_DIR);
-    return new Cache(directory, cacheSize);
+      // Use getFilesDir() because it gives us much more space than getCacheDir()
+      final File directory = new File(mContext.getFilesDir(), CACHE_DIR);
+      mCache = new Cache(directory, cacheSize);
+    }
+    return mCache;
+  }
+
+  public ConnectionPool getConnectionPool() {
+    return mConnectionPool;
+  }
+
+  // Limits of concurrent requests can be adjusted at runtime with Dispatcher#setMaxRequests
+  // and Dispatcher#setMaxRequestsPerHost.
+  public Dispatcher getDispatcher() {
+    return mDispatcher;
   }
 
   public expolib_v1.okhttp3.Cache getExpolibOkhttpCacheForClient() {
@@ -1,6 +1,10 @@
 package versioned.host.exp.exponent.modules.api.components.maps;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+import android.util.LruCache;
 
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.model.Tile;
@@ -8,57 +12,177 @@ import com.google.android.gms.maps.model.TileOverlay;
 import com.google.android.gms.maps.model.TileOverlayOptions;
 import com.google.android.gms.maps.model.TileProvider;
 
-import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class AirMapLocalTile extends AirMapFeature {
 
+    static final int DEFAULT_TILE_CACHE_SIZE = 8 * 1024 * 1024;
+
+    // Tiles of neighboring zoom levels are loaded on a single background thread. When it can't keep
+    // up the oldest requests are dropped, as they are the least likely to be still needed.
+    private static final ThreadPoolExecutor PREFETCH_EXECUTOR = new ThreadPoolExecutor(
+            1, 1, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(64),
+            new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    static {
+        PREFETCH_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    // cached in place of tiles missing from MBTiles, so that they are not looked up again
+    private static final byte[] NO_IMAGE = new byte[0];
+
     class AIRMapLocalTileProvider implements TileProvider {
-        private static final int BUFFER_SIZE = 16 * 1024;
-        private int tileSize;
-        private String pathTemplate;
+        private static final String MBTILES_EXTENSION = ".mbtiles";
+        private static final String MBTILES_QUERY =
+                "SELECT tile_data FROM tiles WHERE zoom_level = ? AND tile_column = ? AND tile_row = ?";
+        // zoom level, column and row are packed into a single long cache key
+        private static final int MAX_ZOOM = 29;
 
+        private int tileSize;
+        private volatile String pathTemplate;
+        private volatile boolean prefetchNeighboringZoomLevels;
+        private volatile LruCache<Long, byte[]> tileCache;
+        private SQLiteDatabase mbtiles;
+        private boolean mbtilesOpenFailed;
+        // set once the overlay is removed, so that pending prefetches don't reopen the database
+        private volatile boolean closed;
 
-        public AIRMapLocalTileProvider(int tileSizet, String pathTemplate) {
+        public AIRMapLocalTileProvider(int tileSizet, String pathTemplate, int tileCacheSize, boolean prefetchNeighboringZoomLevels) {
             this.tileSize = tileSizet;
             this.pathTemplate = pathTemplate;
+            this.prefetchNeighboringZoomLevels = prefetchNeighboringZoomLevels;
+            this.tileCache = createTileCache(tileCacheSize);
         }
 
         @Override
         public Tile getTile(int x, int y, int zoom) {
-            byte[] image = readTileImage(x, y, zoom);
+            byte[] image = getTileImage(x, y, zoom);
+            if (prefetchNeighboringZoomLevels) {
+                prefetchNeighboringTiles(x, y, zoom);
+            }
             return image == null ? TileProvider.NO_TILE : new Tile(this.tileSize, this.tileSize, image);
         }
 
         public void setPathTemplate(String pathTemplate) {
-            this.pathTemplate = pathTemplate;
+            synchronized (this) {
+                this.pathTemplate = pathTemplate;
+                closeMBTiles();
+            }
+            this.tileCache = createTileCache(this.tileCache.maxSize());
         }
 
         public void setTileSize(int tileSize) {
             this.tileSize = tileSize;
         }
 
-        private byte[] readTileImage(int x, int y, int zoom) {
-            InputStream in = null;
-            ByteArrayOutputStream buffer = null;
-            File file = new File(getTileFilename(x, y, zoom));
+        public void setTileCacheSize(int tileCacheSize) {
+            this.tileCache = createTileCache(tileCacheSize);
+        }
 
-            try {
-                in = new FileInputStream(file);
-                buffer = new ByteArrayOutputStream();
+        public void setPrefetchNeighboringZoomLevels(boolean prefetchNeighboringZoomLevels) {
+            this.prefetchNeighboringZoomLevels = prefetchNeighboringZoomLevels;
+        }
+
+        public void close() {
+            synchronized (this) {
+                this.closed = true;
+                closeMBTiles();
+            }
+            this.tileCache.evictAll();
+        }
+
+        private LruCache<Long, byte[]> createTileCache(int maxSize) {
+            return new LruCache<Long, byte[]>(Math.max(maxSize, 1)) {
+                @Override
+                protected int sizeOf(Long key, byte[] image) {
+                    // count some overhead for entries of missing tiles too
+                    return Math.max(image.length, 64);
+                }
+            };
+        }
 
-                int nRead;
-                byte[] data = new byte[BUFFER_SIZE];
+        private long getTileKey(int x, int y, int zoom) {
+            return ((long) zoom << (2 * MAX_ZOOM)) | ((long) x << MAX_ZOOM) | y;
+        }
 
-                while ((nRead = in.read(data, 0, BUFFER_SIZE)) != -1) {
-                    buffer.write(data, 0, nRead);
+        private byte[] getTileImage(int x, int y, int zoom) {
+            if (zoom > MAX_ZOOM) {
+                return readTileImage(x, y, zoom);
+            }
+            LruCache<Long, byte[]> cache = this.tileCache;
+            long key = getTileKey(x, y, zoom);
+            byte[] image = cache.get(key);
+            if (image == null) {
+                image = readTileImage(x, y, zoom);
+                if (image != null) {
+                    cache.put(key, image);
+                } else if (isMBTilesPath(this.pathTemplate)) {
+                    // tiles may be written to a directory at any time, so only misses
+                    // of the read-only database are remembered
+                    cache.put(key, NO_IMAGE);
                 }
-                buffer.flush();
+            }
+            return image == NO_IMAGE ? null : image;
+        }
+
+        private void prefetchNeighboringTiles(int x, int y, int zoom) {
+            if (zoom > 0) {
+                prefetchTile(x >> 1, y >> 1, zoom - 1);
+            }
+            if (zoom < MAX_ZOOM) {
+                prefetchTile(2 * x, 2 * y, zoom + 1);
+                prefetchTile(2 * x + 1, 2 * y, zoom + 1);
+                prefetchTile(2 * x, 2 * y + 1, zoom + 1);
+                prefetchTile(2 * x + 1, 2 * y + 1, zoom + 1);
+            }
+        }
 
-                return buffer.toByteArray();
+        private void prefetchTile(final int x, final int y, final int zoom) {
+            if (this.closed || this.tileCache.get(getTileKey(x, y, zoom)) != null) {
+                return;
+            }
+            PREFETCH_EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (!closed) {
+                        getTileImage(x, y, zoom);
+                    }
+                }
+            });
+        }
+
+        private byte[] readTileImage(int x, int y, int zoom) {
+            SQLiteDatabase mbtiles = getMBTiles();
+            if (mbtiles != null) {
+                return readMBTilesImage(mbtiles, x, y, zoom);
+            }
+            if (isMBTilesPath(this.pathTemplate)) {
+                return null;
+            }
+            return readTileFile(x, y, zoom);
+        }
+
+        private byte[] readTileFile(int x, int y, int zoom) {
+            File file = new File(getTileFilename(x, y, zoom));
+            // length is 0 for files which don't exist
+            long length = file.length();
+            if (length == 0 || length > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            DataInputStream in = null;
+            try {
+                byte[] image = new byte[(int) length];
+                in = new DataInputStream(new FileInputStream(file));
+                in.readFully(image);
+                return image;
             } catch (IOException e) {
                 e.printStackTrace();
                 return null;
@@ -67,16 +191,74 @@ public class AirMapLocalTile extends AirMapFeature {
                 return null;
             } finally {
                 if (in != null) try { in.close(); } catch (Exception ignored) {}
-                if (buffer != null) try { buffer.close(); } catch (Exception ignored) {}
             }
         }
 
+        private byte[] readMBTilesImage(SQLiteDatabase mbtiles, int x, int y, int zoom) {
+            // MBTiles use the TMS scheme, in which rows are numbered from the bottom
+            int row = (1 << zoom) - 1 - y;
+            Cursor cursor = null;
+            try {
+                cursor = mbtiles.rawQuery(MBTILES_QUERY, new String[] {
+                        Integer.toString(zoom), Integer.toString(x), Integer.toString(row)});
+                return cursor.moveToFirst() ? cursor.getBlob(0) : null;
+            } catch (SQLiteException e) {
+                e.printStackTrace();
+                return null;
+            } catch (IllegalStateException e) {
+                // database has been closed in the meantime
+                return null;
+            } finally {
+                if (cursor != null) cursor.close();
+            }
+        }
+
+        private synchronized SQLiteDatabase getMBTiles() {
+            if (this.closed) {
+                return null;
+            }
+            if (this.mbtiles == null && !this.mbtilesOpenFailed && isMBTilesPath(this.pathTemplate)) {
+                try {
+                    this.mbtiles = SQLiteDatabase.openDatabase(this.pathTemplate, null,
+                            SQLiteDatabase.OPEN_READONLY | SQLiteDatabase.NO_LOCALIZED_COLLATORS);
+                } catch (SQLiteException e) {
+                    e.printStackTrace();
+                    this.mbtilesOpenFailed = true;
+                }
+            }
+            return this.mbtiles;
+        }
+
+        private void closeMBTiles() {
+            if (this.mbtiles != null) {
+                this.mbtiles.close();
+                this.mbtiles = null;
+            }
+            this.mbtilesOpenFailed = false;
+        }
+
+        private boolean isMBTilesPath(String path) {
+            return path != null && path.regionMatches(true, path.length() - MBTILES_EXTENSION.length(),
+                    MBTILES_EXTENSION, 0, MBTILES_EXTENSION.length());
+        }
+
         private String getTileFilename(int x, int y, int zoom) {
-            String s = this.pathTemplate
-                    .replace("{x}", Integer.toString(x))
-                    .replace("{y}", Integer.toString(y))
-                    .replace("{z}", Integer.toString(zoom));
-            return s;
+            String template = this.pathTemplate;
+            int length = template.length();
+            StringBuilder filename = new StringBuilder(length + 16);
+            for (int i = 0; i < length; i++) {
+                char c = template.charAt(i);
+                if (c == '{' && i + 2 < length && template.charAt(i + 2) == '}') {
+                    char placeholder = template.charAt(i + 1);
+                    if (placeholder == 'x' || placeholder == 'y' || placeholder == 'z') {
+                        filename.append(placeholder == 'x' ? x : placeholder == 'y' ? y : zoom);
+                        i += 2;
+                        continue;
+                    }
+                }
+                filename.append(c);
+            }
+            return filename.toString();
         }
     }
 
@@ -87,6 +269,8 @@ public class AirMapLocalTile extends AirMapFeature {
     private String pathTemplate;
     private float tileSize;
     private float zIndex;
+    private int tileCacheSize = DEFAULT_TILE_CACHE_SIZE;
+    private boolean prefetchNeighboringZoomLevels;
 
     public AirMapLocalTile(Context context) {
         super(context);
@@ -116,6 +300,20 @@ public class AirMapLocalTile extends AirMapFeature {
         }
     }
 
+    public void setTileCacheSize(int tileCacheSize) {
+        this.tileCacheSize = tileCacheSize;
+        if (tileProvider != null) {
+            tileProvider.setTileCacheSize(tileCacheSize);
+        }
+    }
+
+    public void setPrefetchNeighboringZoomLevels(boolean prefetchNeighboringZoomLevels) {
+        this.prefetchNeighboringZoomLevels = prefetchNeighboringZoomLevels;
+        if (tileProvider != null) {
+            tileProvider.setPrefetchNeighboringZoomLevels(prefetchNeighboringZoomLevels);
+        }
+    }
+
     public TileOverlayOptions getTileOverlayOptions() {
         if (tileOverlayOptions == null) {
             tileOverlayOptions = createTileOverlayOptions();
@@ -126,7 +324,8 @@ public class AirMapLocalTile extends AirMapFeature {
     private TileOverlayOptions createTileOverlayOptions() {
         TileOverlayOptions options = new TileOverlayOptions();
         options.zIndex(zIndex);
-        this.tileProvider = new AirMapLocalTile.AIRMapLocalTileProvider((int)this.tileSize, this.pathTemplate);
+        this.tileProvider = new AirMapLocalTile.AIRMapLocalTileProvider((int)this.tileSize, this.pathTemplate,
+                this.tileCacheSize, this.prefetchNeighboringZoomLevels);
         options.tileProvider(this.tileProvider);
         return options;
     }
@@ -144,5 +343,11 @@ public class AirMapLocalTile extends AirMapFeature {
     @Override
     public void removeFromMap(GoogleMap map) {
         tileOverlay.remove();
+        if (tileProvider != null) {
+            tileProvider.close();
+            // a closed provider can't be reused, a new one is created if the overlay is added again
+            tileProvider = null;
+            tileOverlayOptions = null;
+        }
     }
 }
@@ -53,4 +53,14 @@ public class AirMapLocalTileManager extends ViewGroupManager<AirMapLocalTile> {
         view.setZIndex(zIndex);
     }
 
+    @ReactProp(name = "tileCacheSize", defaultInt = AirMapLocalTile.DEFAULT_TILE_CACHE_SIZE)
+    public void setTileCacheSize(AirMapLocalTile view, int tileCacheSize) {
+        view.setTileCacheSize(tileCacheSize);
+    }
+
+    @ReactProp(name = "prefetchNeighboringZoomLevels", defaultBoolean = false)
+    public void setPrefetchNeighboringZoomLevels(AirMapLocalTile view, boolean prefetchNeighboringZoomLevels) {
+        view.setPrefetchNeighboringZoomLevels(prefetchNeighboringZoomLevels);
+    }
+
 }
\ No newline at end of file
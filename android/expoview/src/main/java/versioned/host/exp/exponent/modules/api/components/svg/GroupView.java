@@ -42,7 +42,7 @@ class GroupView extends RenderableView {
     }
 
     void setupGlyphContext(Canvas canvas) {
-        RectF clipBounds = new RectF(canvas.getClipBounds());
+        RectF clipBounds = new RectF(getSvgView().getClipBounds(canvas));
         if (mMatrix != null) {
             mMatrix.mapRect(clipBounds);
         }
@@ -94,6 +94,9 @@ class GroupView extends RenderableView {
             }
             if (child instanceof VirtualView) {
                 VirtualView node = ((VirtualView)child);
+                if (svg.canSkipDrawing(canvas, node)) {
+                    continue;
+                }
                 if (node instanceof RenderableView) {
                     ((RenderableView)node).mergeProperties(self);
                 }
@@ -116,6 +119,7 @@ class GroupView extends RenderableView {
                 }
             } else if (child instanceof SvgView) {
                 SvgView svgView = (SvgView)child;
+                svg.disablePartialRedraw();
                 svgView.drawChildren(canvas);
                 if (svgView.isResponsible()) {
                     svg.enableTouchEvents();
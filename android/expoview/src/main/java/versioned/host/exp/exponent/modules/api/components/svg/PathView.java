@@ -27,8 +27,7 @@ class PathView extends RenderableView {
 
     @ReactProp(name = "d")
     public void setD(String d) {
-        PropHelper.PathParser mD = new PropHelper.PathParser(d, mScale);
-        mPath = mD.getPath();
+        mPath = PropHelper.PathParser.parse(d, mScale);
         invalidate();
     }
 
@@ -12,13 +12,11 @@ package versioned.host.exp.exponent.modules.api.components.svg;
 import android.graphics.Path;
 import android.graphics.RectF;
 
-import com.facebook.react.bridge.Arguments;
+import android.util.LruCache;
+
 import com.facebook.react.bridge.ReadableArray;
-import com.facebook.react.bridge.WritableArray;
-import com.facebook.react.bridge.WritableMap;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
 
 /**
  * Contains static helper methods for accessing props.
@@ -228,13 +226,35 @@ class PropHelper {
         return value * unit * scale + offset;
     }
 
+    /**
+     * Parses SVG path data (the {@code d} attribute) into {@link Path}s scaled by the given factor.
+     *
+     * Path data is scanned once, char by char, and numbers are read in place, so parsing does not
+     * allocate any substrings. Parsed commands are kept in a least-recently-used cache keyed by
+     * (d, scale), so that a path repeated across many views, like an icon in a list, is parsed once.
+     * Every call still returns a new {@link Path} built from the cached commands, since views modify
+     * their paths (e.g. set the fill type).
+     */
     static class PathParser {
-        static private final Pattern PATH_REG_EXP = Pattern.compile("[a-df-z]|[\\-+]?(?:[\\d.]e[\\-+]?|[^\\s\\-+,a-z])+", Pattern.CASE_INSENSITIVE);
-        static private final Pattern DECIMAL_REG_EXP = Pattern.compile("(\\.\\d+)(?=-?\\.)");
+        // Size of the cache is counted in coordinates and characters of path data
+        private static final int CACHE_MAX_SIZE = 256 * 1024;
+        private static final LruCache<CacheKey, ParsedPath> sCache = new LruCache<CacheKey, ParsedPath>(CACHE_MAX_SIZE) {
+            @Override
+            protected int sizeOf(CacheKey key, ParsedPath value) {
+                return key.mD.length() + value.mCoords.length;
+            }
+        };
+
+        private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+        // Digits past this value don't change a float, they only move the decimal point
+        private static final long MAX_MANTISSA = 100000000000000000L;
 
-        private Matcher mMatcher;
-        private Path mPath;
         private final String mString;
+        private final int mLength;
+        private int mIndex = 0;
         private float mPenX = 0f;
         private float mPenY = 0f;
         private float mPenDownX;
@@ -245,158 +265,326 @@ class PropHelper {
         private boolean mValid = true;
         private boolean mPendDownSet = false;
 
-        private String mLastCommand;
-        private String mLastValue;
-        private WritableArray mBezierCurves;
-        private WritableMap mLastStartPoint;
+        private byte[] mCommands = new byte[16];
+        private int mCommandsCount = 0;
+        private float[] mCoords = new float[64];
+        private int mCoordsCount = 0;
+
+        static Path parse(String d, float scale) {
+            if (d == null) {
+                return new Path();
+            }
+            CacheKey key = new CacheKey(d, scale);
+            ParsedPath parsedPath = sCache.get(key);
+            if (parsedPath == null) {
+                parsedPath = new PathParser(d, scale).parse();
+                sCache.put(key, parsedPath);
+            }
+            return parsedPath.toPath();
+        }
 
-        PathParser(String d, float scale) {
+        private PathParser(String d, float scale) {
             mScale = scale;
             mString = d;
+            mLength = d.length();
         }
 
-        private void executeCommand(String command) {
+        private ParsedPath parse() {
+            char lastCommand = 0;
+            skipSeparators();
+            while (mIndex < mLength && mValid) {
+                char c = mString.charAt(mIndex);
+                char command;
+                if (isCommand(c)) {
+                    command = c;
+                    mIndex++;
+                } else if (lastCommand != 0 && isNumberStart(c)) {
+                    // parameters for the previous command repeated without the letter
+                    command = lastCommand;
+                } else {
+                    mValid = false;
+                    break;
+                }
+
+                executeCommand(command);
+
+                switch (command) {
+                    case 'm':
+                        lastCommand = 'l';
+                        break;
+                    case 'M':
+                        lastCommand = 'L';
+                        break;
+                    case 'z':
+                    case 'Z':
+                        // close command takes no parameters, so it can't be repeated
+                        lastCommand = 0;
+                        break;
+                    default:
+                        lastCommand = command;
+                }
+                skipSeparators();
+            }
+
+            if (!mValid) {
+                return ParsedPath.EMPTY;
+            }
+            return new ParsedPath(
+                    Arrays.copyOf(mCommands, mCommandsCount),
+                    Arrays.copyOf(mCoords, mCoordsCount));
+        }
+
+        private void executeCommand(char command) {
             switch (command) {
                 // moveTo command
-                case "m":
+                case 'm':
                     move(getNextFloat(), getNextFloat());
                     break;
-                case "M":
+                case 'M':
                     moveTo(getNextFloat(), getNextFloat());
                     break;
 
                 // lineTo command
-                case "l":
+                case 'l':
                     line(getNextFloat(), getNextFloat());
                     break;
-                case "L":
+                case 'L':
                     lineTo(getNextFloat(), getNextFloat());
                     break;
 
                 // horizontalTo command
-                case "h":
+                case 'h':
                     line(getNextFloat(), 0);
                     break;
-                case "H":
+                case 'H':
                     lineTo(getNextFloat(), mPenY);
                     break;
 
                 // verticalTo command
-                case "v":
+                case 'v':
                     line(0, getNextFloat());
                     break;
-                case "V":
+                case 'V':
                     lineTo(mPenX, getNextFloat());
                     break;
 
                 // curveTo command
-                case "c":
+                case 'c':
                     curve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "C":
+                case 'C':
                     curveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // smoothCurveTo command
-                case "s":
+                case 's':
                     smoothCurve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "S":
+                case 'S':
                     smoothCurveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // quadraticBezierCurveTo command
-                case "q":
+                case 'q':
                     quadraticBezierCurve(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
-                case "Q":
+                case 'Q':
                     quadraticBezierCurveTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextFloat());
                     break;
 
                 // smoothQuadraticBezierCurveTo command
-                case "t":
+                case 't':
                     smoothQuadraticBezierCurve(getNextFloat(), getNextFloat());
                     break;
-                case "T":
+                case 'T':
                     smoothQuadraticBezierCurveTo(getNextFloat(), getNextFloat());
                     break;
 
                 // arcTo command
-                case "a":
+                case 'a':
                     arc(getNextFloat(), getNextFloat(), getNextFloat(), getNextBoolean(), getNextBoolean(), getNextFloat(), getNextFloat());
                     break;
-                case "A":
+                case 'A':
                     arcTo(getNextFloat(), getNextFloat(), getNextFloat(), getNextBoolean(), getNextBoolean(), getNextFloat(), getNextFloat());
                     break;
 
                 // close command
-                case "Z":
-                case "z":
+                case 'Z':
+                case 'z':
                     close();
                     break;
-                default:
-                    mLastValue = command;
-                    executeCommand(mLastCommand);
-                    return;
             }
+        }
 
-            mLastCommand = command;
-
-            if (command.equals("m")) {
-                mLastCommand = "l";
-            } else if (command.equals("M")) {
-                mLastCommand = "L";
+        private static boolean isCommand(char c) {
+            switch (c) {
+                case 'M': case 'm':
+                case 'L': case 'l':
+                case 'H': case 'h':
+                case 'V': case 'v':
+                case 'C': case 'c':
+                case 'S': case 's':
+                case 'Q': case 'q':
+                case 'T': case 't':
+                case 'A': case 'a':
+                case 'Z': case 'z':
+                    return true;
+                default:
+                    return false;
             }
         }
 
-        Path getPath() {
-            mPath = new Path();
-            mBezierCurves = Arguments.createArray();
-            mMatcher = PATH_REG_EXP.matcher(DECIMAL_REG_EXP.matcher(mString).replaceAll("$1,"));
-
-            while (mMatcher.find() && mValid) {
-                executeCommand(mMatcher.group());
-            }
-            return mPath;
+        private static boolean isNumberStart(char c) {
+            return (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+';
         }
 
-        private WritableMap getPointMap(float x, float y) {
-            WritableMap map = Arguments.createMap();
-            map.putDouble("x", x * mScale);
-            map.putDouble("y", y * mScale);
-            return map;
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
         }
 
-        private WritableMap clonePointMap(WritableMap map) {
-            WritableMap cloned = Arguments.createMap();
-            cloned.putDouble("x", map.getDouble("x"));
-            cloned.putDouble("y", map.getDouble("y"));
-            return cloned;
+        private void skipSeparators() {
+            while (mIndex < mLength) {
+                char c = mString.charAt(mIndex);
+                if (c != ' ' && c != ',' && c != '\n' && c != '\r' && c != '\t' && c != '\f') {
+                    return;
+                }
+                mIndex++;
+            }
         }
 
         private boolean getNextBoolean() {
-            if (mMatcher.find()) {
-                return mMatcher.group().equals("1");
-            } else {
-                mValid = false;
-                mPath = new Path();
-                return false;
+            skipSeparators();
+            // flags are single digits, which don't need to be separated from the following number
+            if (mIndex < mLength) {
+                char c = mString.charAt(mIndex);
+                if (c == '0' || c == '1') {
+                    mIndex++;
+                    return c == '1';
+                }
             }
+            mValid = false;
+            return false;
         }
 
         private float getNextFloat() {
-            if (mLastValue != null) {
-                String lastValue = mLastValue;
-                mLastValue = null;
-                return Float.parseFloat(lastValue);
-            } else if (mMatcher.find()) {
-                return Float.parseFloat(mMatcher.group());
-            } else {
+            skipSeparators();
+            int i = mIndex;
+            boolean negative = false;
+            if (i < mLength && (mString.charAt(i) == '-' || mString.charAt(i) == '+')) {
+                negative = mString.charAt(i) == '-';
+                i++;
+            }
+
+            long mantissa = 0;
+            int exponent = 0;
+            boolean hasDigits = false;
+            char c;
+            while (i < mLength && isDigit(c = mString.charAt(i))) {
+                hasDigits = true;
+                if (mantissa < MAX_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                } else {
+                    exponent++;
+                }
+                i++;
+            }
+            // a second decimal point starts the next number, e.g. "0.5.5" is "0.5 .5"
+            if (i < mLength && mString.charAt(i) == '.') {
+                i++;
+                while (i < mLength && isDigit(c = mString.charAt(i))) {
+                    hasDigits = true;
+                    if (mantissa < MAX_MANTISSA) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        exponent--;
+                    }
+                    i++;
+                }
+            }
+            if (!hasDigits) {
                 mValid = false;
-                mPath = new Path();
                 return 0;
             }
+
+            if (i < mLength && (mString.charAt(i) == 'e' || mString.charAt(i) == 'E')) {
+                int j = i + 1;
+                boolean negativeExponent = false;
+                if (j < mLength && (mString.charAt(j) == '-' || mString.charAt(j) == '+')) {
+                    negativeExponent = mString.charAt(j) == '-';
+                    j++;
+                }
+                if (j < mLength && isDigit(mString.charAt(j))) {
+                    int explicitExponent = 0;
+                    while (j < mLength && isDigit(c = mString.charAt(j))) {
+                        if (explicitExponent < 1000) {
+                            explicitExponent = explicitExponent * 10 + (c - '0');
+                        }
+                        j++;
+                    }
+                    exponent += negativeExponent ? -explicitExponent : explicitExponent;
+                    i = j;
+                }
+            }
+            mIndex = i;
+
+            double value = mantissa;
+            if (exponent > 0) {
+                value *= powerOfTen(exponent);
+            } else if (exponent < 0) {
+                value /= powerOfTen(-exponent);
+            }
+            return (float) (negative ? -value : value);
+        }
+
+        private static double powerOfTen(int exponent) {
+            return exponent < POWERS_OF_TEN.length ? POWERS_OF_TEN[exponent] : Math.pow(10, exponent);
+        }
+
+        private void addCommand(byte command, int coordsCount) {
+            if (mCommandsCount == mCommands.length) {
+                mCommands = Arrays.copyOf(mCommands, mCommands.length * 2);
+            }
+            mCommands[mCommandsCount++] = command;
+            if (mCoordsCount + coordsCount > mCoords.length) {
+                mCoords = Arrays.copyOf(mCoords, Math.max(mCoords.length * 2, mCoordsCount + coordsCount));
+            }
         }
+
+        private void addMoveTo(float x, float y) {
+            addCommand(ParsedPath.MOVE_TO, 2);
+            mCoords[mCoordsCount++] = x;
+            mCoords[mCoordsCount++] = y;
+        }
+
+        private void addLineTo(float x, float y) {
+            addCommand(ParsedPath.LINE_TO, 2);
+            mCoords[mCoordsCount++] = x;
+            mCoords[mCoordsCount++] = y;
+        }
+
+        private void addCubicTo(float x1, float y1, float x2, float y2, float x3, float y3) {
+            addCommand(ParsedPath.CUBIC_TO, 6);
+            mCoords[mCoordsCount++] = x1;
+            mCoords[mCoordsCount++] = y1;
+            mCoords[mCoordsCount++] = x2;
+            mCoords[mCoordsCount++] = y2;
+            mCoords[mCoordsCount++] = x3;
+            mCoords[mCoordsCount++] = y3;
+        }
+
+        private void addArcTo(float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
+            addCommand(ParsedPath.ARC_TO, 6);
+            mCoords[mCoordsCount++] = left;
+            mCoords[mCoordsCount++] = top;
+            mCoords[mCoordsCount++] = right;
+            mCoords[mCoordsCount++] = bottom;
+            mCoords[mCoordsCount++] = startAngle;
+            mCoords[mCoordsCount++] = sweepAngle;
+        }
+
+        private void addClose() {
+            addCommand(ParsedPath.CLOSE, 0);
+        }
+
         private void move(float x, float y) {
             moveTo(x + mPenX, y + mPenY);
         }
@@ -404,12 +592,7 @@ class PropHelper {
         private void moveTo(float x, float y) {
             mPenDownX = mPivotX = mPenX = x;
             mPenDownY = mPivotY = mPenY = y;
-            mPath.moveTo(x * mScale, y * mScale);
-
-            mLastStartPoint = getPointMap(x ,y);
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(x, y));
-            mBezierCurves.pushArray(points);
+            addMoveTo(x * mScale, y * mScale);
         }
 
         private void line(float x, float y) {
@@ -420,13 +603,7 @@ class PropHelper {
             setPenDown();
             mPivotX = mPenX = x;
             mPivotY = mPenY = y;
-            mPath.lineTo(x * mScale, y * mScale);
-
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(x, y));
-            points.pushMap(getPointMap(x, y));
-            points.pushMap(getPointMap(x, y));
-            mBezierCurves.pushArray(points);
+            addLineTo(x * mScale, y * mScale);
         }
 
         private void curve(float c1x, float c1y, float c2x, float c2y, float ex, float ey) {
@@ -443,13 +620,7 @@ class PropHelper {
             setPenDown();
             mPenX = ex;
             mPenY = ey;
-            mPath.cubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
-
-            WritableArray points = Arguments.createArray();
-            points.pushMap(getPointMap(c1x, c1y));
-            points.pushMap(getPointMap(c2x, c2y));
-            points.pushMap(getPointMap(ex, ey));
-            mBezierCurves.pushArray(points);
+            addCubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
         }
 
         private void smoothCurve(float c1x, float c1y, float ex, float ey) {
@@ -584,13 +755,13 @@ class PropHelper {
                     sweep = -sweep;
                 }
 
-                RectF oval = new RectF(
+                addArcTo(
                         (cx - rx) * mScale,
                         (cy - rx) * mScale,
                         (cx + rx) * mScale,
-                        (cy + rx) * mScale);
-
-                mPath.arcTo(oval, start, sweep);
+                        (cy + rx) * mScale,
+                        start,
+                        sweep);
             }
         }
 
@@ -599,13 +770,7 @@ class PropHelper {
                 mPenX = mPenDownX;
                 mPenY = mPenDownY;
                 mPendDownSet = false;
-                mPath.close();
-
-                WritableArray points = Arguments.createArray();
-                points.pushMap(clonePointMap(mLastStartPoint));
-                points.pushMap(clonePointMap(mLastStartPoint));
-                points.pushMap(clonePointMap(mLastStartPoint));
-                mBezierCurves.pushArray(points);
+                addClose();
             }
         }
 
@@ -652,7 +817,7 @@ class PropHelper {
                 float ex = (cx + xx * x + yx * y);
                 float ey = (cy + xy * x + yy * y);
 
-                mPath.cubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
+                addCubicTo(c1x * mScale, c1y * mScale, c2x * mScale, c2y * mScale, ex * mScale, ey * mScale);
             }
         }
 
@@ -669,4 +834,87 @@ class PropHelper {
             return Math.round(val * multiplier) / multiplier;
         }
     }
+
+    private static final class CacheKey {
+        private final String mD;
+        private final float mScale;
+
+        CacheKey(String d, float scale) {
+            mD = d;
+            mScale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return Float.compare(mScale, other.mScale) == 0 && mD.equals(other.mD);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * mD.hashCode() + Float.floatToIntBits(mScale);
+        }
+    }
+
+    /**
+     * Immutable list of path commands, with coordinates already scaled.
+     */
+    private static final class ParsedPath {
+        static final byte MOVE_TO = 0;
+        static final byte LINE_TO = 1;
+        static final byte CUBIC_TO = 2;
+        static final byte ARC_TO = 3;
+        static final byte CLOSE = 4;
+
+        static final ParsedPath EMPTY = new ParsedPath(new byte[0], new float[0]);
+
+        private final byte[] mCommands;
+        private final float[] mCoords;
+
+        ParsedPath(byte[] commands, float[] coords) {
+            mCommands = commands;
+            mCoords = coords;
+        }
+
+        Path toPath() {
+            Path path = new Path();
+            float[] c = mCoords;
+            int i = 0;
+            RectF oval = null;
+            for (byte command : mCommands) {
+                switch (command) {
+                    case MOVE_TO:
+                        path.moveTo(c[i], c[i + 1]);
+                        i += 2;
+                        break;
+                    case LINE_TO:
+                        path.lineTo(c[i], c[i + 1]);
+                        i += 2;
+                        break;
+                    case CUBIC_TO:
+                        path.cubicTo(c[i], c[i + 1], c[i + 2], c[i + 3], c[i + 4], c[i + 5]);
+                        i += 6;
+                        break;
+                    case ARC_TO:
+                        if (oval == null) {
+                            oval = new RectF();
+                        }
+                        oval.set(c[i], c[i + 1], c[i + 2], c[i + 3]);
+                        path.arcTo(oval, c[i + 4], c[i + 5]);
+                        i += 6;
+                        break;
+                    case CLOSE:
+                        path.close();
+                        break;
+                }
+            }
+            return path;
+        }
+    }
 }
@@ -84,6 +84,16 @@ abstract public class RenderableView extends VirtualView {
     @Nullable ArrayList<String> mPropList;
     @Nullable ArrayList<String> mAttributeList;
 
+    /*
+    Area of the svg bitmap touched by the last draw of this element, including stroke and
+    antialiasing, used to redraw only the changed region of the svg. Empty if nothing was drawn.
+    */
+    final RectF mRenderedBounds = new RectF();
+    private float mStrokePathWidth;
+    private float mStrokePathMiter;
+    private @Nullable Paint.Cap mStrokePathCap;
+    private @Nullable Paint.Join mStrokePathJoin;
+
     private static final Pattern regex = Pattern.compile("[0-9.-]+");
 
     @ReactProp(name = "fill")
@@ -254,7 +264,9 @@ abstract public class RenderableView extends VirtualView {
             mask = (MaskView) root.getDefinedMask(mMask);
         }
         if (mask != null) {
-            Rect clipBounds = canvas.getClipBounds();
+            // the mask is composited over whole clip bounds, skipped elements would be lost
+            getSvgView().disablePartialRedraw();
+            Rect clipBounds = getSvgView().getClipBounds(canvas);
             int height = clipBounds.height();
             int width = clipBounds.width();
 
@@ -315,6 +327,7 @@ abstract public class RenderableView extends VirtualView {
     @Override
     void draw(Canvas canvas, Paint paint, float opacity) {
         opacity *= mOpacity;
+        mRenderedBounds.setEmpty();
 
         if (opacity > MIN_OPACITY_FOR_DRAW) {
             boolean computePaths = mPath == null;
@@ -333,6 +346,7 @@ abstract public class RenderableView extends VirtualView {
             Matrix svgToViewMatrix = new Matrix(canvas.getMatrix());
             svgToViewMatrix.mapRect(clientRect);
             this.setClientRect(clientRect);
+            mRenderedBounds.set(clientRect);
 
             clip(canvas, paint);
 
@@ -344,15 +358,37 @@ abstract public class RenderableView extends VirtualView {
                 canvas.drawPath(path, paint);
             }
             if (setupStrokePaint(paint, opacity * strokeOpacity)) {
-                if (computePaths) {
+                // stroke can be inherited from the parent group, which doesn't reset our cached paths
+                if (computePaths || mStrokePath == null || !isStrokePathUpToDate(paint)) {
                     mStrokePath = new Path();
                     paint.getFillPath(path, mStrokePath);
+                    mStrokePathWidth = paint.getStrokeWidth();
+                    mStrokePathMiter = paint.getStrokeMiter();
+                    mStrokePathCap = paint.getStrokeCap();
+                    mStrokePathJoin = paint.getStrokeJoin();
                 }
                 canvas.drawPath(path, paint);
+
+                RectF strokeRect = new RectF();
+                mStrokePath.computeBounds(strokeRect, true);
+                svgToViewMatrix.mapRect(strokeRect);
+                mRenderedBounds.union(strokeRect);
+            }
+
+            if (!mRenderedBounds.isEmpty()) {
+                // antialiasing touches pixels just outside of the geometry
+                mRenderedBounds.inset(-1, -1);
             }
         }
     }
 
+    private boolean isStrokePathUpToDate(Paint paint) {
+        return paint.getStrokeWidth() == mStrokePathWidth &&
+                paint.getStrokeMiter() == mStrokePathMiter &&
+                paint.getStrokeCap() == mStrokePathCap &&
+                paint.getStrokeJoin() == mStrokePathJoin;
+    }
+
     /**
      * Sets up paint according to the props set on a view. Returns {@code true}
      * if the fill should be drawn, {@code false} if not.
@@ -1059,7 +1059,10 @@ class RenderableViewManager extends ViewGroupManager<VirtualView> {
     @Override
     protected void onAfterUpdateTransaction(VirtualView node) {
         super.onAfterUpdateTransaction(node);
-        invalidateSvgView(node);
+        SvgView view = node.getSvgView();
+        if (view != null) {
+            view.invalidateNode(node);
+        }
     }
 
     @Override
@@ -12,8 +12,10 @@ package versioned.host.exp.exponent.modules.api.components.svg;
 import android.annotation.SuppressLint;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Typeface;
@@ -30,6 +32,7 @@ import com.facebook.react.uimanager.annotations.ReactProp;
 import com.facebook.react.views.view.ReactViewGroup;
 
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -63,6 +66,16 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
 
     private @Nullable Bitmap mBitmap;
 
+    /*
+    The bitmap is kept across frames. Changes to simple shapes only mark the region they covered
+    before and after the change as dirty, everything else redraws the whole tree.
+    */
+    private boolean mRedrawAll = true;
+    private final ArrayList<RenderableView> mDirtyNodes = new ArrayList<>();
+    private final RectF mDirtyRect = new RectF();
+    private boolean mPartialRedraw = false;
+    private boolean mPartialRedrawSupported = false;
+
     public SvgView(ReactContext reactContext) {
         super(reactContext);
         mScale = DisplayMetricsHolder.getScreenDisplayMetrics().density;
@@ -86,10 +99,73 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             ((VirtualView) parent).getSvgView().invalidate();
             return;
         }
-        if (mBitmap != null) {
-            mBitmap.recycle();
+        mRedrawAll = true;
+        mDirtyNodes.clear();
+        mDirtyRect.setEmpty();
+    }
+
+    /**
+     * Invalidates an element which props have changed. Simple shapes drawn directly by this view get
+     * only their region redrawn, anything else invalidates the whole view.
+     */
+    void invalidateNode(VirtualView node) {
+        if (mRedrawAll || !mPartialRedrawSupported || !canRedrawPartially(node)) {
+            invalidate();
+            return;
+        }
+        RenderableView renderable = (RenderableView) node;
+        if (!mDirtyNodes.contains(renderable)) {
+            mDirtyNodes.add(renderable);
+            // region covered before the change
+            mDirtyRect.union(renderable.mRenderedBounds);
+        }
+        super.invalidate();
+    }
+
+    private static boolean isSimpleShape(VirtualView node) {
+        return node instanceof RenderableView &&
+                !(node instanceof GroupView) &&
+                !(node instanceof UseView) &&
+                !(node instanceof ImageView) &&
+                node.mName == null &&
+                node.mMask == null;
+    }
+
+    private boolean canRedrawPartially(VirtualView node) {
+        if (getParent() instanceof VirtualView || !isSimpleShape(node)) {
+            return false;
+        }
+        // elements inside of definitions, clip paths, masks, patterns and text are drawn elsewhere,
+        // and elements inside of masked groups are drawn through the mask's offscreen bitmap
+        ViewParent parent = node.getParent();
+        while (parent != this) {
+            if (parent == null || parent.getClass() != GroupView.class ||
+                    ((GroupView) parent).mName != null || ((GroupView) parent).mMask != null) {
+                return false;
+            }
+            parent = parent.getParent();
         }
-        mBitmap = null;
+        return true;
+    }
+
+    /**
+     * Called while drawing the whole tree when something is drawn which makes partial redraws
+     * produce different results, like clipping.
+     */
+    void disablePartialRedraw() {
+        mPartialRedrawSupported = false;
+    }
+
+    /**
+     * Whether drawing of the node can be skipped, because it's not changed and lies outside of the
+     * region being redrawn.
+     */
+    boolean canSkipDrawing(Canvas canvas, VirtualView node) {
+        if (!mPartialRedraw || canvas != mCanvas || !isSimpleShape(node)) {
+            return false;
+        }
+        RectF bounds = ((RenderableView) node).mRenderedBounds;
+        return !RectF.intersects(bounds, mDirtyRect) && !mDirtyNodes.contains(node);
     }
 
     @Override
@@ -98,8 +174,8 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             return;
         }
         super.onDraw(canvas);
-        if (mBitmap == null) {
-            mBitmap = drawOutput();
+        if (mBitmap == null || mRedrawAll || !mDirtyNodes.isEmpty()) {
+            drawOutput();
         }
         if (mBitmap != null)
             canvas.drawBitmap(mBitmap, 0, 0, null);
@@ -217,25 +293,97 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
         clearChildCache();
     }
 
-    private Bitmap drawOutput() {
+    private void drawOutput() {
         mRendered = true;
         float width = getWidth();
         float height = getHeight();
         boolean invalid = Float.isNaN(width) || Float.isNaN(height) || width < 1 || height < 1 || (Math.log10(width) + Math.log10(height) > 42);
         if (invalid) {
-            return null;
+            if (mBitmap != null) {
+                mBitmap.recycle();
+            }
+            mBitmap = null;
+            return;
+        }
+        if (mBitmap == null || mBitmap.getWidth() != (int) width || mBitmap.getHeight() != (int) height) {
+            if (mBitmap != null) {
+                mBitmap.recycle();
+            }
+            mBitmap = Bitmap.createBitmap(
+                    (int) width,
+                    (int) height,
+                    Bitmap.Config.ARGB_8888);
+            mRedrawAll = true;
         }
-        Bitmap bitmap = Bitmap.createBitmap(
-                (int) width,
-                (int) height,
-                Bitmap.Config.ARGB_8888);
 
-        drawChildren(new Canvas(bitmap));
-        return bitmap;
+        if (mRedrawAll || !drawDirtyRegion(mBitmap)) {
+            mBitmap.eraseColor(Color.TRANSPARENT);
+            mPartialRedrawSupported = true;
+            drawChildren(new Canvas(mBitmap));
+        }
+        mRedrawAll = false;
+        mDirtyNodes.clear();
+        mDirtyRect.setEmpty();
+    }
+
+    /**
+     * Redraws the region covered by the dirty nodes, keeping the rest of the bitmap.
+     * Returns false if the region couldn't be determined and the whole bitmap needs to be redrawn.
+     */
+    private boolean drawDirtyRegion(Bitmap bitmap) {
+        Rect clip = new Rect();
+        // The region covered by a node after the change is known only once it's drawn. If it's
+        // not inside of the redrawn region, the region is extended and drawn again.
+        for (int i = 0; i < 2; i++) {
+            mDirtyRect.roundOut(clip);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.clipRect(clip);
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            mPartialRedraw = true;
+            try {
+                drawChildren(canvas);
+            } finally {
+                mPartialRedraw = false;
+            }
+
+            boolean covered = true;
+            for (RenderableView node : mDirtyNodes) {
+                RectF bounds = node.mRenderedBounds;
+                if (!bounds.isEmpty() && !mDirtyRect.contains(bounds)) {
+                    mDirtyRect.union(bounds);
+                    covered = false;
+                }
+            }
+            if (covered) {
+                return true;
+            }
+        }
+        return false;
     }
 
     Rect getCanvasBounds() {
-        return mCanvas.getClipBounds();
+        return getClipBounds(mCanvas);
+    }
+
+    /**
+     * Returns clip bounds of the canvas. While redrawing a dirty region these are the bounds the
+     * canvas would have without being clipped to that region, so that everything is laid out
+     * just like when the whole tree is drawn.
+     */
+    Rect getClipBounds(Canvas canvas) {
+        if (!mPartialRedraw || canvas != mCanvas) {
+            return canvas.getClipBounds();
+        }
+        @SuppressWarnings("deprecation")
+        Matrix matrix = canvas.getMatrix();
+        Matrix inverse = new Matrix();
+        Rect clipBounds = new Rect();
+        if (matrix.invert(inverse)) {
+            RectF bounds = new RectF(0, 0, canvas.getWidth(), canvas.getHeight());
+            inverse.mapRect(bounds);
+            bounds.round(clipBounds);
+        }
+        return clipBounds;
     }
 
     void drawChildren(final Canvas canvas) {
@@ -277,6 +425,9 @@ public class SvgView extends ReactViewGroup implements ReactCompoundView, ReactC
             View lNode = getChildAt(i);
             if (lNode instanceof VirtualView) {
                 VirtualView node = (VirtualView)lNode;
+                if (canSkipDrawing(canvas, node)) {
+                    continue;
+                }
                 int count = node.saveAndSetupCanvas(canvas);
                 node.render(canvas, paint, 1f);
                 node.restoreCanvas(canvas, count);
@@ -316,6 +316,7 @@ abstract public class VirtualView extends ReactViewGroup {
 
         if (clip != null) {
             canvas.clipPath(clip);
+            getSvgView().disablePartialRedraw();
         }
     }
 
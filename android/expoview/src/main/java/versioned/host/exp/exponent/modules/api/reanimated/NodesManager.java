@@ -87,6 +87,7 @@ public class NodesManager implements EventDispatcherListener {
     }
   }
   private Queue<NativeUpdateOperation> mOperationsInBatch = new LinkedList<>();
+  private final ArrayList<PropsNode> mPendingUIUpdates = new ArrayList<>();
 
   public NodesManager(ReactContext context) {
     mContext = context;
@@ -154,7 +155,15 @@ public class NodesManager implements EventDispatcherListener {
     }
 
     if (mWantRunUpdates) {
-      Node.runUpdates(updateContext);
+      Node.runUpdates(updateContext, mAnimatedNodes);
+    }
+
+    if (!mPendingUIUpdates.isEmpty()) {
+      // Apply changes of all props nodes evaluated in this frame in a single pass
+      for (int i = 0, size = mPendingUIUpdates.size(); i < size; i++) {
+        mPendingUIUpdates.get(i).applyPendingUIProps();
+      }
+      mPendingUIUpdates.clear();
     }
 
     if (!mOperationsInBatch.isEmpty()) {
@@ -268,10 +277,12 @@ public class NodesManager implements EventDispatcherListener {
       throw new JSApplicationIllegalArgumentException("Unsupported node type: " + type);
     }
     mAnimatedNodes.put(nodeID, node);
+    updateContext.graphVersion++;
   }
 
   public void dropNode(int tag) {
     mAnimatedNodes.remove(tag);
+    updateContext.graphVersion++;
   }
 
   public void connectNodes(int parentID, int childID) {
@@ -328,6 +339,11 @@ public class NodesManager implements EventDispatcherListener {
     ((PropsNode) node).disconnectFromView(viewTag);
   }
 
+  public void enqueueUpdateViewOnUIThread(PropsNode propsNode) {
+    mPendingUIUpdates.add(propsNode);
+    startUpdatingOnAnimationFrame();
+  }
+
   public void enqueueUpdateViewOnNativeThread(int viewTag, WritableMap nativeProps) {
     mOperationsInBatch.add(new NativeUpdateOperation(viewTag, nativeProps));
   }
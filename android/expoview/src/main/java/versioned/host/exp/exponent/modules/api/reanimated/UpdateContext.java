@@ -9,4 +9,16 @@ public class UpdateContext {
   public long updateLoopID = 0;
   public final ArrayList<Node> updatedNodes = new ArrayList<>();
 
+  /**
+   * Incremented whenever the graph changes, which invalidates the topological order of nodes
+   * computed in {@link Node#runUpdates}.
+   */
+  public int graphVersion = 0;
+  public int topologicalOrderVersion = -1;
+
+  // Buffers reused by Node#runUpdates across frames
+  public final ArrayList<Node> traversalStack = new ArrayList<>();
+  public Node[] dirtyFinalNodes = new Node[16];
+  public int dirtyFinalNodesCount = 0;
+
 }
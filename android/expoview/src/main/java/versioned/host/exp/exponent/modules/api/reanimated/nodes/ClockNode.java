@@ -26,10 +26,20 @@ public class ClockNode extends Node implements NodesManager.OnAnimationFrame {
   }
 
   @Override
-  protected Double evaluate() {
+  protected boolean evaluatesToDouble() {
+    return true;
+  }
+
+  @Override
+  protected double evaluateDouble() {
     return mNodesManager.currentFrameTimeMs;
   }
 
+  @Override
+  protected Double evaluate() {
+    return evaluateDouble();
+  }
+
   @Override
   public void onAnimationFrame() {
     if (isRunning) {
@@ -11,9 +11,9 @@ public abstract class ClockOpNode extends Node {
     }
 
     @Override
-    protected Double eval(ClockNode clock) {
+    protected double eval(ClockNode clock) {
       clock.start();
-      return ZERO;
+      return 0.;
     }
   }
 
@@ -23,9 +23,9 @@ public abstract class ClockOpNode extends Node {
     }
 
     @Override
-    protected Double eval(ClockNode clock) {
+    protected double eval(ClockNode clock) {
       clock.stop();
-      return ZERO;
+      return 0.;
     }
   }
 
@@ -35,7 +35,7 @@ public abstract class ClockOpNode extends Node {
     }
 
     @Override
-    protected Double eval(ClockNode clock) {
+    protected double eval(ClockNode clock) {
       return clock.isRunning ? 1. : 0.;
     }
   }
@@ -48,10 +48,20 @@ public abstract class ClockOpNode extends Node {
   }
 
   @Override
-  protected Double evaluate() {
+  protected boolean evaluatesToDouble() {
+    return true;
+  }
+
+  @Override
+  protected double evaluateDouble() {
     ClockNode clock = mNodesManager.findNodeById(clockID, ClockNode.class);
     return eval(clock);
   }
 
-  protected abstract Double eval(ClockNode clock);
+  @Override
+  protected Double evaluate() {
+    return evaluateDouble();
+  }
+
+  protected abstract double eval(ClockNode clock);
 }
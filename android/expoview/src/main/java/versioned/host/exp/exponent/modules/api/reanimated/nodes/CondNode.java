@@ -14,13 +14,38 @@ public class CondNode extends Node {
     mElseBlockID = config.hasKey("elseBlock") ? config.getInt("elseBlock") : -1;
   }
 
-  @Override
-  protected Object evaluate() {
-    Object cond = mNodesManager.getNodeValue(mCondID);
-    if (cond instanceof Number && ((Number) cond).doubleValue() != 0.0) {
+  private int getBranchID() {
+    Node cond = mNodesManager.findNodeById(mCondID, Node.class);
+    boolean isTruthy;
+    if (cond.hasDoubleValue()) {
       // This is not a good way to compare doubles but in this case it is what we want
-      return mIfBlockID != -1 ? mNodesManager.getNodeValue(mIfBlockID) : ZERO;
+      isTruthy = cond.doubleValue() != 0.0;
+    } else {
+      Object value = cond.value();
+      isTruthy = value instanceof Number && ((Number) value).doubleValue() != 0.0;
     }
-    return mElseBlockID != -1 ? mNodesManager.getNodeValue(mElseBlockID) : ZERO;
+    return isTruthy ? mIfBlockID : mElseBlockID;
+  }
+
+  private boolean branchEvaluatesToDouble(int branchID) {
+    return branchID == -1 || mNodesManager.findNodeById(branchID, Node.class).evaluatesToDouble();
+  }
+
+  @Override
+  protected boolean evaluatesToDouble() {
+    // The condition is not known yet, so both branches have to be numeric
+    return branchEvaluatesToDouble(mIfBlockID) && branchEvaluatesToDouble(mElseBlockID);
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    int branchID = getBranchID();
+    return branchID != -1 ? mNodesManager.findNodeById(branchID, Node.class).doubleValue() : 0;
+  }
+
+  @Override
+  protected Object evaluate() {
+    int branchID = getBranchID();
+    return branchID != -1 ? mNodesManager.getNodeValue(branchID) : ZERO;
   }
 }
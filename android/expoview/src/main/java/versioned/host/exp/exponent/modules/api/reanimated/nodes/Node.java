@@ -1,15 +1,16 @@
 package versioned.host.exp.exponent.modules.api.reanimated.nodes;
 
+import android.util.SparseArray;
+
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.UiThreadUtil;
 import versioned.host.exp.exponent.modules.api.reanimated.NodesManager;
 import versioned.host.exp.exponent.modules.api.reanimated.UpdateContext;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
-import java.util.Stack;
 
 import javax.annotation.Nullable;
 
@@ -18,15 +19,33 @@ public abstract class Node {
   public static final Double ZERO = Double.valueOf(0);
   public static final Double ONE = Double.valueOf(1);
 
+  // Sorts nodes so that parents come before their children
+  private static final Comparator<Node> TOPOLOGICAL_ORDER = new Comparator<Node>() {
+    @Override
+    public int compare(Node a, Node b) {
+      return Integer.compare(b.mPostOrderIndex, a.mPostOrderIndex);
+    }
+  };
+
   protected final int mNodeID;
   protected final NodesManager mNodesManager;
 
   private final UpdateContext mUpdateContext;
 
+  private static final int VALUE_TYPE_OBJECT = 0;
+  private static final int VALUE_TYPE_DOUBLE = 1;
+
   private long mLastLoopID = -1;
+  // Numeric values are memoized as primitives and only boxed when requested through value()
+  private int mMemoizedValueType = VALUE_TYPE_OBJECT;
+  private double mMemoizedDouble;
   private @Nullable Object mMemoizedValue;
   private @Nullable List<Node> mChildren; /* lazy-initialized when a child is added */
 
+  private long mDirtyLoopID = -1;
+  private int mPostOrderIndex = 0;
+  private int mPostOrderVersion = -1;
+
   public Node(int nodeID, @Nullable ReadableMap config, NodesManager nodesManager) {
     mNodeID = nodeID;
     mNodesManager = nodesManager;
@@ -35,29 +54,67 @@ public abstract class Node {
 
   protected abstract @Nullable Object evaluate();
 
-  public final @Nullable Object value() {
+  /**
+   * Nodes which evaluate to numbers return true here and implement {@link #evaluateDouble()},
+   * which is then used instead of {@link #evaluate()} so that no boxed values are created.
+   * It's called before the node is evaluated, so it must not evaluate any nodes itself.
+   */
+  protected boolean evaluatesToDouble() {
+    return false;
+  }
+
+  protected double evaluateDouble() {
+    return ((Number) evaluate()).doubleValue();
+  }
+
+  private void evaluateIfNeeded() {
     if (mLastLoopID < mUpdateContext.updateLoopID) {
       mLastLoopID = mUpdateContext.updateLoopID;
-      return (mMemoizedValue = evaluate());
+      if (evaluatesToDouble()) {
+        mMemoizedDouble = evaluateDouble();
+        mMemoizedValueType = VALUE_TYPE_DOUBLE;
+        mMemoizedValue = null;
+      } else {
+        mMemoizedValue = evaluate();
+        mMemoizedValueType = VALUE_TYPE_OBJECT;
+      }
+    }
+  }
+
+  public final @Nullable Object value() {
+    evaluateIfNeeded();
+    if (mMemoizedValueType == VALUE_TYPE_DOUBLE && mMemoizedValue == null) {
+      mMemoizedValue = mMemoizedDouble;
     }
     return mMemoizedValue;
   }
 
   /**
-   * This method will never return null. If value is null or of a different type we try to cast and
+   * Returns true if the value of this node is a number, in which case {@link #doubleValue()}
+   * returns it exactly.
+   */
+  public final boolean hasDoubleValue() {
+    evaluateIfNeeded();
+    return mMemoizedValueType == VALUE_TYPE_DOUBLE || mMemoizedValue instanceof Double;
+  }
+
+  /**
+   * This method never throws for null values. If value is null or of a different type we try to cast and
    * return 0 if we fail to properly cast the value. This is to match iOS behavior where the node
    * would not throw even if the value was not set.
    */
-  public final Double doubleValue() {
-    Object value = value();
+  public final double doubleValue() {
+    evaluateIfNeeded();
+    if (mMemoizedValueType == VALUE_TYPE_DOUBLE) {
+      return mMemoizedDouble;
+    }
+    Object value = mMemoizedValue;
     if (value == null) {
-      return ZERO;
-    } else if (value instanceof Double) {
-      return (Double) value;
+      return 0;
     } else if (value instanceof Number) {
-      return Double.valueOf(((Number) value).doubleValue());
+      return ((Number) value).doubleValue();
     } else if (value instanceof Boolean) {
-      return ((Boolean) value).booleanValue() ? ONE : ZERO;
+      return ((Boolean) value).booleanValue() ? 1 : 0;
     }
     throw new IllegalStateException("Value of node " + this + " cannot be cast to a number");
   }
@@ -67,12 +124,14 @@ public abstract class Node {
       mChildren = new ArrayList<>();
     }
     mChildren.add(child);
+    mUpdateContext.graphVersion++;
     dangerouslyRescheduleEvaluate();
   }
 
   public void removeChild(Node child) {
     if (mChildren != null) {
       mChildren.remove(child);
+      mUpdateContext.graphVersion++;
     }
   }
 
@@ -89,37 +148,93 @@ public abstract class Node {
 
   protected final void forceUpdateMemoizedValue(Object value) {
     mMemoizedValue = value;
+    mMemoizedValueType = VALUE_TYPE_OBJECT;
+    markUpdated();
+  }
+
+  protected final void forceUpdateMemoizedValue(double value) {
+    mMemoizedDouble = value;
+    mMemoizedValueType = VALUE_TYPE_DOUBLE;
+    mMemoizedValue = null;
     markUpdated();
   }
 
-  private static void findAndUpdateNodes(Node node, Set<Node> visitedNodes, Stack<FinalNode> finalNodes) {
-    if (visitedNodes.contains(node)) {
-      return;
-    } else {
-      visitedNodes.add(node);
+  /**
+   * Numbers nodes in DFS post-order, in which every node comes after all of its descendants.
+   */
+  private static int assignPostOrderIndices(Node node, int version, int nextIndex) {
+    if (node.mPostOrderVersion == version) {
+      return nextIndex;
     }
+    node.mPostOrderVersion = version;
 
     List<Node> children = node.mChildren;
     if (children != null) {
-      for (Node child : children) {
-        findAndUpdateNodes(child, visitedNodes, finalNodes);
+      for (int i = 0; i < children.size(); i++) {
+        nextIndex = assignPostOrderIndices(children.get(i), version, nextIndex);
       }
     }
-    if (node instanceof FinalNode) {
-      finalNodes.push((FinalNode) node);
+    node.mPostOrderIndex = nextIndex;
+    return nextIndex + 1;
+  }
+
+  private static void updateTopologicalOrder(UpdateContext updateContext, SparseArray<Node> nodes) {
+    int version = updateContext.graphVersion;
+    int nextIndex = 0;
+    for (int i = 0; i < nodes.size(); i++) {
+      nextIndex = assignPostOrderIndices(nodes.valueAt(i), version, nextIndex);
     }
+    updateContext.topologicalOrderVersion = version;
   }
 
-  public static void runUpdates(UpdateContext updateContext) {
+  /**
+   * Marks the node and all of its descendants which haven't been visited in the current update loop
+   * as dirty, collecting final nodes among them.
+   */
+  private static void markDirty(Node root, UpdateContext updateContext) {
+    long loopID = updateContext.updateLoopID;
+    ArrayList<Node> stack = updateContext.traversalStack;
+    stack.add(root);
+    while (!stack.isEmpty()) {
+      Node node = stack.remove(stack.size() - 1);
+      if (node.mDirtyLoopID == loopID) {
+        continue;
+      }
+      node.mDirtyLoopID = loopID;
+
+      List<Node> children = node.mChildren;
+      if (children != null) {
+        for (int i = 0; i < children.size(); i++) {
+          stack.add(children.get(i));
+        }
+      }
+      if (node instanceof FinalNode) {
+        if (updateContext.dirtyFinalNodesCount == updateContext.dirtyFinalNodes.length) {
+          updateContext.dirtyFinalNodes = Arrays.copyOf(updateContext.dirtyFinalNodes, updateContext.dirtyFinalNodesCount * 2);
+        }
+        updateContext.dirtyFinalNodes[updateContext.dirtyFinalNodesCount++] = node;
+      }
+    }
+  }
+
+  public static void runUpdates(UpdateContext updateContext, SparseArray<Node> nodes) {
     UiThreadUtil.assertOnUiThread();
+    if (updateContext.topologicalOrderVersion != updateContext.graphVersion) {
+      updateTopologicalOrder(updateContext, nodes);
+    }
+
     ArrayList<Node> updatedNodes = updateContext.updatedNodes;
-    Set<Node> visitedNodes = new HashSet<>();
-    Stack<FinalNode> finalNodes = new Stack<>();
     for (int i = 0; i < updatedNodes.size(); i++) {
-      findAndUpdateNodes(updatedNodes.get(i), visitedNodes, finalNodes);
+      markDirty(updatedNodes.get(i), updateContext);
       if (i == updatedNodes.size() - 1) {
-        while (!finalNodes.isEmpty()) {
-          finalNodes.pop().update();
+        Node[] dirtyFinalNodes = updateContext.dirtyFinalNodes;
+        int dirtyFinalNodesCount = updateContext.dirtyFinalNodesCount;
+        updateContext.dirtyFinalNodesCount = 0;
+        Arrays.sort(dirtyFinalNodes, 0, dirtyFinalNodesCount, TOPOLOGICAL_ORDER);
+        for (int j = 0; j < dirtyFinalNodesCount; j++) {
+          Node finalNode = dirtyFinalNodes[j];
+          dirtyFinalNodes[j] = null;
+          ((FinalNode) finalNode).update();
         }
       }
     }
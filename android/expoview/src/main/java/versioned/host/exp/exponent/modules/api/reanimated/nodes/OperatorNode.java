@@ -7,10 +7,23 @@ import versioned.host.exp.exponent.modules.api.reanimated.Utils;
 
 public class OperatorNode extends Node {
 
-  private static boolean truthy(Object value) {
+  private static final long ZERO_BITS = Double.doubleToLongBits(0.);
+
+  private static boolean truthy(Node node) {
+    if (node.hasDoubleValue()) {
+      return Double.doubleToLongBits(node.doubleValue()) != ZERO_BITS;
+    }
+    Object value = node.value();
     return value != null && !value.equals(0.);
   }
 
+  /**
+   * Compares numbers the same way {@link Double#equals} does, without boxing them.
+   */
+  private static boolean doubleEquals(double x, double y) {
+    return Double.doubleToLongBits(x) == Double.doubleToLongBits(y);
+  }
+
   private interface Operator {
     double evaluate(Node[] input);
   }
@@ -25,91 +38,91 @@ public class OperatorNode extends Node {
       return acc;
     }
 
-    public abstract double reduce(Double x, Double y);
+    public abstract double reduce(double x, double y);
   }
 
   private static abstract class SingleOperator implements Operator {
     @Override
     public double evaluate(Node[] input) {
-      return eval((Double) input[0].value());
+      return eval(input[0].doubleValue());
     }
 
-    public abstract double eval(Double x);
+    public abstract double eval(double x);
   }
 
   private static abstract class CompOperator implements Operator {
     @Override
     public double evaluate(Node[] input) {
-      return eval((Double) input[0].value(), (Double) input[1].value()) ? 1. : 0.;
+      return eval(input[0].doubleValue(), input[1].doubleValue()) ? 1. : 0.;
     }
 
-    public abstract boolean eval(Double x, Double y);
+    public abstract boolean eval(double x, double y);
   }
 
   // arithmetic
   private static final Operator ADD = new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return x + y;
     }
   };
   private static final Operator SUB = new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return x - y;
     }
   };
   private static final Operator MULTIPLY= new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return x * y;
     }
   };
   private static final Operator DIVIDE = new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return x / y;
     }
   };
   private static final Operator POW = new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return Math.pow(x, y);
     }
   };
   private static final Operator MODULO = new ReduceOperator() {
     @Override
-    public double reduce(Double x, Double y) {
+    public double reduce(double x, double y) {
       return ((x % y) + y) % y;
     }
   };
   private static final Operator SQRT = new SingleOperator() {
     @Override
-    public double eval(Double x) {
+    public double eval(double x) {
       return Math.sqrt(x);
     }
   };
   private static final Operator SIN = new SingleOperator() {
     @Override
-    public double eval(Double x) {
+    public double eval(double x) {
       return Math.sin(x);
     }
   };
   private static final Operator COS = new SingleOperator() {
     @Override
-    public double eval(Double x) {
+    public double eval(double x) {
       return Math.cos(x);
     }
   };
   private static final Operator EXP = new SingleOperator() {
     @Override
-    public double eval(Double x) {
+    public double eval(double x) {
       return Math.exp(x);
     }
   };
   private static final Operator ROUND = new SingleOperator() {
     @Override
-    public double eval(Double x) {
+    public double eval(double x) {
       return Math.round(x);
     }
   };
@@ -118,9 +131,9 @@ public class OperatorNode extends Node {
   private static final Operator AND = new Operator() {
     @Override
     public double evaluate(Node[] input) {
-      boolean res = truthy(input[0].value());
+      boolean res = truthy(input[0]);
       for (int i = 1; i < input.length && res; i++) {
-        res = res && truthy(input[i].value());
+        res = res && truthy(input[i]);
       }
       return res ? 1. : 0.;
     }
@@ -128,9 +141,9 @@ public class OperatorNode extends Node {
   private static final Operator OR = new Operator() {
     @Override
     public double evaluate(Node[] input) {
-      boolean res = truthy(input[0].value());
+      boolean res = truthy(input[0]);
       for (int i = 1; i < input.length && !res; i++) {
-        res = res || truthy(input[i].value());
+        res = res || truthy(input[i]);
       }
       return res ? 1. : 0.;
     }
@@ -138,52 +151,54 @@ public class OperatorNode extends Node {
   private static final Operator NOT = new Operator() {
     @Override
     public double evaluate(Node[] input) {
-      return truthy(input[0].value()) ? 0. : 1.;
+      return truthy(input[0]) ? 0. : 1.;
     }
   };
   private static final Operator DEFINED = new Operator() {
     @Override
     public double evaluate(Node[] input) {
-      Object res = input[0].value();
-      return (res != null && !(res instanceof Double && ((Double) res).isNaN())) ? 1. : 0.;
+      if (input[0].hasDoubleValue()) {
+        return Double.isNaN(input[0].doubleValue()) ? 0. : 1.;
+      }
+      return input[0].value() != null ? 1. : 0.;
     }
   };
 
   // comparison
   private static final Operator LESS_THAN = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
+    public boolean eval(double x, double y) {
       return x < y;
     }
   };
   private static final Operator EQ = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
-      return x.equals(y);
+    public boolean eval(double x, double y) {
+      return doubleEquals(x, y);
     }
   };
   private static final Operator GREATER_THAN = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
+    public boolean eval(double x, double y) {
       return x > y;
     }
   };
   private static final Operator LESS_OR_EQ = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
+    public boolean eval(double x, double y) {
       return x <= y;
     }
   };
   private static final Operator GREATER_OR_EQ = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
+    public boolean eval(double x, double y) {
       return x >= y;
     }
   };
   private static final Operator NEQ = new CompOperator() {
     @Override
-    public boolean eval(Double x, Double y) {
-      return !x.equals(y);
+    public boolean eval(double x, double y) {
+      return !doubleEquals(x, y);
     }
   };
 
@@ -245,10 +260,20 @@ public class OperatorNode extends Node {
   }
 
   @Override
-  protected Object evaluate() {
+  protected boolean evaluatesToDouble() {
+    return true;
+  }
+
+  @Override
+  protected double evaluateDouble() {
     for (int i = 0; i < mInputIDs.length; i++) {
       mInputNodes[i] = mNodesManager.findNodeById(mInputIDs[i], Node.class);
     }
     return mOperator.evaluate(mInputNodes);
   }
+
+  @Override
+  protected Object evaluate() {
+    return evaluateDouble();
+  }
 }
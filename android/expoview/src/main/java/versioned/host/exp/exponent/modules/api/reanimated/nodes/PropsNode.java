@@ -14,16 +14,29 @@ import com.facebook.react.uimanager.UIImplementation;
 import versioned.host.exp.exponent.modules.api.reanimated.NodesManager;
 import versioned.host.exp.exponent.modules.api.reanimated.Utils;
 
+import java.util.HashMap;
 import java.util.Map;
 
+import javax.annotation.Nullable;
+
 public class PropsNode extends Node implements FinalNode {
 
-  private final Map<String, Integer> mMapping;
+  private final String[] mPropNames;
+  private final int[] mPropNodeIDs;
+  private final Node[] mPropNodes;
+  private int mPropNodesGraphVersion = -1;
   private final UIImplementation mUIImplementation;
   private int mConnectedViewTag = View.NO_ID;
 
-  private final JavaOnlyMap mPropMap;
-  private final ReactStylesDiffMap mDiffMap;
+  // Last values sent to the view, only changed props are sent again. Numeric props coming directly
+  // from nodes are kept as primitives, props coming from style nodes are kept by name.
+  private final double[] mLastValues;
+  private final boolean[] mHasLastValue;
+  private final Map<String, Object> mLastStyleValues = new HashMap<>();
+
+  // UI props waiting to be applied by the nodes manager at the end of the frame
+  private JavaOnlyMap mPropMap;
+  private boolean mHasPendingUIProps = false;
 
   public PropsNode(
           int nodeID,
@@ -31,14 +44,25 @@ public class PropsNode extends Node implements FinalNode {
           NodesManager nodesManager,
           UIImplementation uiImplementation) {
     super(nodeID, config, nodesManager);
-    mMapping = Utils.processMapping(config.getMap("props"));
+    Map<String, Integer> mapping = Utils.processMapping(config.getMap("props"));
+    mPropNames = new String[mapping.size()];
+    mPropNodeIDs = new int[mapping.size()];
+    int i = 0;
+    for (Map.Entry<String, Integer> entry : mapping.entrySet()) {
+      mPropNames[i] = entry.getKey();
+      mPropNodeIDs[i] = entry.getValue();
+      i++;
+    }
+    mPropNodes = new Node[mapping.size()];
+    mLastValues = new double[mapping.size()];
+    mHasLastValue = new boolean[mapping.size()];
     mUIImplementation = uiImplementation;
     mPropMap = new JavaOnlyMap();
-    mDiffMap = new ReactStylesDiffMap(mPropMap);
   }
 
   public void connectToView(int viewTag) {
     mConnectedViewTag = viewTag;
+    forgetLastValues();
     dangerouslyRescheduleEvaluate();
   }
 
@@ -46,33 +70,88 @@ public class PropsNode extends Node implements FinalNode {
     mConnectedViewTag = View.NO_ID;
   }
 
+  /**
+   * Applies UI props changed since the last call to the connected view. Called by the nodes manager
+   * once per frame for all props nodes which have pending changes.
+   */
+  public void applyPendingUIProps() {
+    if (!mHasPendingUIProps) {
+      return;
+    }
+    mHasPendingUIProps = false;
+    if (mConnectedViewTag != View.NO_ID) {
+      mUIImplementation.synchronouslyUpdateViewOnUIThread(
+              mConnectedViewTag,
+              new ReactStylesDiffMap(mPropMap));
+    }
+    mPropMap = new JavaOnlyMap();
+  }
+
+  private void forgetLastValues() {
+    for (int i = 0; i < mHasLastValue.length; i++) {
+      mHasLastValue[i] = false;
+    }
+    mLastStyleValues.clear();
+  }
+
+  private void resolvePropNodes() {
+    int graphVersion = mNodesManager.updateContext.graphVersion;
+    if (mPropNodesGraphVersion != graphVersion) {
+      for (int i = 0; i < mPropNodeIDs.length; i++) {
+        mPropNodes[i] = mNodesManager.findNodeById(mPropNodeIDs[i], Node.class);
+      }
+      mPropNodesGraphVersion = graphVersion;
+    }
+  }
+
+  private boolean styleNumberChanged(String key, double value) {
+    Object lastValue = mLastStyleValues.get(key);
+    if (lastValue instanceof Double && Double.compare((Double) lastValue, value) == 0) {
+      return false;
+    }
+    mLastStyleValues.put(key, value);
+    return true;
+  }
+
+  private boolean styleStringChanged(String key, @Nullable String value) {
+    Object lastValue = mLastStyleValues.get(key);
+    if (value != null && value.equals(lastValue)) {
+      return false;
+    }
+    mLastStyleValues.put(key, value);
+    return true;
+  }
+
   @Override
   protected Double evaluate() {
+    resolvePropNodes();
     boolean hasUIProps = false;
-    boolean hasNativeProps = false;
-    boolean hasJSProps = false;
-    WritableMap jsProps = Arguments.createMap();
-    final WritableMap nativeProps = Arguments.createMap();
+    WritableMap jsProps = null;
+    WritableMap nativeProps = null;
 
-    for (Map.Entry<String, Integer> entry : mMapping.entrySet()) {
-      Node node = mNodesManager.findNodeById(entry.getValue(), Node.class);
+    for (int i = 0; i < mPropNodes.length; i++) {
+      Node node = mPropNodes[i];
       if (node instanceof StyleNode) {
         WritableMap style = (WritableMap) node.value();
         ReadableMapKeySetIterator iter = style.keySetIterator();
         while (iter.hasNextKey()) {
           String key = iter.nextKey();
+          ReadableType type = style.getType(key);
+          if (type == ReadableType.Number && !styleNumberChanged(key, style.getDouble(key))) {
+            continue;
+          } else if (type == ReadableType.String && !styleStringChanged(key, style.getString(key))) {
+            continue;
+          }
+
           WritableMap dest;
           if (mNodesManager.uiProps.contains(key)) {
             hasUIProps = true;
             dest = mPropMap;
           } else if (mNodesManager.nativeProps.contains(key)){
-            hasNativeProps = true;
-            dest = nativeProps;
+            dest = nativeProps != null ? nativeProps : (nativeProps = Arguments.createMap());
           } else {
-            hasJSProps = true;
-            dest = jsProps;
+            dest = jsProps != null ? jsProps : (jsProps = Arguments.createMap());
           }
-          ReadableType type = style.getType(key);
           switch (type) {
             case Number:
               dest.putDouble(key, style.getDouble(key));
@@ -88,27 +167,35 @@ public class PropsNode extends Node implements FinalNode {
           }
         }
       } else {
-        String key = entry.getKey();
+        double value = node.doubleValue();
+        if (mHasLastValue[i] && Double.compare(mLastValues[i], value) == 0) {
+          continue;
+        }
+        mLastValues[i] = value;
+        mHasLastValue[i] = true;
+
+        String key = mPropNames[i];
         if (mNodesManager.uiProps.contains(key)) {
           hasUIProps = true;
-          mPropMap.putDouble(key, node.doubleValue());
+          mPropMap.putDouble(key, value);
         } else {
-          hasNativeProps = true;
-          nativeProps.putDouble(key, node.doubleValue());
+          if (nativeProps == null) {
+            nativeProps = Arguments.createMap();
+          }
+          nativeProps.putDouble(key, value);
         }
       }
     }
 
     if (mConnectedViewTag != View.NO_ID) {
-      if (hasUIProps) {
-        mUIImplementation.synchronouslyUpdateViewOnUIThread(
-                mConnectedViewTag,
-                mDiffMap);
+      if (hasUIProps && !mHasPendingUIProps) {
+        mHasPendingUIProps = true;
+        mNodesManager.enqueueUpdateViewOnUIThread(this);
       }
-      if (hasNativeProps) {
+      if (nativeProps != null) {
         mNodesManager.enqueueUpdateViewOnNativeThread(mConnectedViewTag, nativeProps);
       }
-      if (hasJSProps) {
+      if (jsProps != null) {
         WritableMap evt = Arguments.createMap();
         evt.putInt("viewTag", mConnectedViewTag);
         evt.putMap("props", jsProps);
@@ -128,7 +215,7 @@ public class PropsNode extends Node implements FinalNode {
       return;
     }
 
-    // call value for side effect (diff map update via changes made to prop map)
+    // call value for side effect (changed props get enqueued to be applied to the view)
     value();
   }
 }
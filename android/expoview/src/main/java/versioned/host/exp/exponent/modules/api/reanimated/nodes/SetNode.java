@@ -14,6 +14,19 @@ public class SetNode extends Node {
     mValueNodeID = config.getInt("value");
   }
 
+  @Override
+  protected boolean evaluatesToDouble() {
+    return mNodesManager.findNodeById(mValueNodeID, Node.class).evaluatesToDouble();
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    double newValue = mNodesManager.findNodeById(mValueNodeID, Node.class).doubleValue();
+    ValueNode what = mNodesManager.findNodeById(mWhatNodeID, ValueNode.class);
+    what.setValue(newValue);
+    return newValue;
+  }
+
   @Override
   protected Object evaluate() {
     Object newValue = mNodesManager.getNodeValue(mValueNodeID);
@@ -8,7 +8,10 @@ import javax.annotation.Nullable;
 
 public class ValueNode extends Node {
 
+  // Numbers are kept as primitives, mValue holds values of other types
   private Object mValue;
+  private boolean mIsNumber;
+  private double mNumberValue;
 
   public ValueNode(int nodeID, @Nullable ReadableMap config, NodesManager nodesManager) {
     super(nodeID, config, nodesManager);
@@ -20,7 +23,8 @@ public class ValueNode extends Node {
     if (type == ReadableType.String) {
       mValue = config.getString("value");
     } else if (type == ReadableType.Number) {
-      mValue = config.getDouble("value");
+      mIsNumber = true;
+      mNumberValue = config.getDouble("value");
     } else if (type == ReadableType.Null) {
       mValue = null;
     } else {
@@ -29,10 +33,32 @@ public class ValueNode extends Node {
   }
 
   public void setValue(Object value) {
+    if (value instanceof Double) {
+      setValue(((Double) value).doubleValue());
+      return;
+    }
+    mIsNumber = false;
     mValue = value;
     forceUpdateMemoizedValue(mValue);
   }
 
+  public void setValue(double value) {
+    mIsNumber = true;
+    mValue = null;
+    mNumberValue = value;
+    forceUpdateMemoizedValue(value);
+  }
+
+  @Override
+  protected boolean evaluatesToDouble() {
+    return mIsNumber;
+  }
+
+  @Override
+  protected double evaluateDouble() {
+    return mNumberValue;
+  }
+
   @Override
   protected Object evaluate() {
     return mValue;
@@ -0,0 +1,337 @@
+package org.unimodules.core.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates an {@code ExportedMethodsDispatcher} for every concrete {@code ExportedModule} declaring
+ * or inheriting methods annotated with {@code ExpoMethod}. The dispatcher switches on the method key
+ * and calls exported methods directly, so that {@code ExportedModule} doesn't have to go through reflection.
+ *
+ * Methods the generated class can't call (eg. package-private methods inherited from a superclass
+ * in another package) are left out and still invoked reflectively at runtime.
+ *
+ * Classes are referred to by name, so that the processor doesn't depend on the unimodules-core Android library.
+ */
+public class ExportedMethodsDispatcherProcessor extends AbstractProcessor {
+  private static final String EXPORTED_MODULE_CLASS_NAME = "org.unimodules.core.ExportedModule";
+  private static final String EXPO_METHOD_CLASS_NAME = "org.unimodules.core.interfaces.ExpoMethod";
+  private static final String DISPATCHER_INTERFACE_NAME = "org.unimodules.core.ExportedMethodsDispatcher";
+  private static final String DISPATCHER_CLASS_NAME_SUFFIX = "$$ExportedMethodsDispatcher";
+
+  private Filer mFiler;
+  private Messager mMessager;
+  private Elements mElements;
+  private Types mTypes;
+  private Set<String> mGeneratedClassNames = new HashSet<>();
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    mFiler = processingEnv.getFiler();
+    mMessager = processingEnv.getMessager();
+    mElements = processingEnv.getElementUtils();
+    mTypes = processingEnv.getTypeUtils();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    // Modules may only inherit exported methods, so every class has to be looked at.
+    return Collections.singleton("*");
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement exportedModuleElement = mElements.getTypeElement(EXPORTED_MODULE_CLASS_NAME);
+    if (exportedModuleElement == null) {
+      // unimodules-core is not on the classpath, there is nothing to generate.
+      return false;
+    }
+    TypeMirror exportedModuleType = mTypes.erasure(exportedModuleElement.asType());
+
+    List<TypeElement> typeElements = new ArrayList<>();
+    for (Element rootElement : roundEnv.getRootElements()) {
+      collectTypeElements(rootElement, typeElements);
+    }
+
+    for (TypeElement typeElement : typeElements) {
+      if (typeElement.getKind() != ElementKind.CLASS
+          || typeElement.getModifiers().contains(Modifier.ABSTRACT)
+          || !mTypes.isSubtype(mTypes.erasure(typeElement.asType()), exportedModuleType)) {
+        continue;
+      }
+
+      String dispatcherClassName = mElements.getBinaryName(typeElement) + DISPATCHER_CLASS_NAME_SUFFIX;
+      if (mGeneratedClassNames.contains(dispatcherClassName)) {
+        continue;
+      }
+
+      Map<String, ExecutableElement> methods = getExportedMethods(typeElement);
+      if (methods.isEmpty()) {
+        continue;
+      }
+
+      try {
+        writeDispatcher(typeElement, dispatcherClassName, methods);
+        mGeneratedClassNames.add(dispatcherClassName);
+      } catch (IOException e) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, "Could not write " + dispatcherClassName + ": " + e.getMessage(), typeElement);
+      }
+    }
+    return false;
+  }
+
+  private void collectTypeElements(Element element, List<TypeElement> typeElements) {
+    if (!(element instanceof TypeElement) || element.getModifiers().contains(Modifier.PRIVATE)) {
+      // Private classes can't be referred to from the generated class.
+      return;
+    }
+    TypeElement typeElement = (TypeElement) element;
+    if (typeElement.getNestingKind().isNested() && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+      return;
+    }
+    typeElements.add(typeElement);
+    for (TypeElement enclosedType : ElementFilter.typesIn(typeElement.getEnclosedElements())) {
+      collectTypeElements(enclosedType, typeElements);
+    }
+  }
+
+  /**
+   * Mirrors ExportedModule#getExportedMethods(): walks from the module class up to ExportedModule,
+   * methods of subclasses take precedence over methods of superclasses with the same name.
+   * Methods which can't be called from the generated class are skipped.
+   */
+  private Map<String, ExecutableElement> getExportedMethods(TypeElement typeElement) {
+    PackageElement modulePackage = mElements.getPackageOf(typeElement);
+    Set<String> seenNames = new HashSet<>();
+    Map<String, ExecutableElement> methods = new LinkedHashMap<>();
+
+    TypeElement klass = typeElement;
+    while (klass != null) {
+      for (ExecutableElement method : ElementFilter.methodsIn(klass.getEnclosedElements())) {
+        if (!isExpoMethod(method)) {
+          continue;
+        }
+        String name = method.getSimpleName().toString();
+        if (!seenNames.add(name)) {
+          continue;
+        }
+        if (isCallable(method, modulePackage)) {
+          methods.put(name, method);
+        }
+      }
+
+      if (EXPORTED_MODULE_CLASS_NAME.equals(klass.getQualifiedName().toString())) {
+        break;
+      }
+      TypeMirror superclass = klass.getSuperclass();
+      klass = superclass.getKind() == TypeKind.DECLARED ? (TypeElement) mTypes.asElement(superclass) : null;
+    }
+    return methods;
+  }
+
+  private boolean isExpoMethod(ExecutableElement method) {
+    for (AnnotationMirror annotationMirror : method.getAnnotationMirrors()) {
+      TypeElement annotationElement = (TypeElement) annotationMirror.getAnnotationType().asElement();
+      if (EXPO_METHOD_CLASS_NAME.equals(annotationElement.getQualifiedName().toString())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isCallable(ExecutableElement method, PackageElement modulePackage) {
+    Set<Modifier> modifiers = method.getModifiers();
+    if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC)) {
+      return false;
+    }
+    if (!modifiers.contains(Modifier.PUBLIC) && !modulePackage.equals(mElements.getPackageOf(method))) {
+      // Package-private and protected methods are only accessible from the package they're declared in.
+      return false;
+    }
+    for (VariableElement parameter : method.getParameters()) {
+      if (!isAccessibleType(mTypes.erasure(parameter.asType()), modulePackage)) {
+        return false;
+      }
+    }
+    TypeMirror exceptionType = mElements.getTypeElement(Exception.class.getCanonicalName()).asType();
+    for (TypeMirror thrownType : method.getThrownTypes()) {
+      // The generated call is wrapped in catch (Exception e), other throwables couldn't be caught.
+      if (!mTypes.isSubtype(thrownType, exceptionType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isAccessibleType(TypeMirror type, PackageElement modulePackage) {
+    while (type.getKind() == TypeKind.ARRAY) {
+      type = ((ArrayType) type).getComponentType();
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return type.getKind().isPrimitive();
+    }
+    Element element = ((DeclaredType) type).asElement();
+    while (element instanceof TypeElement) {
+      Set<Modifier> modifiers = element.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE)) {
+        return false;
+      }
+      if (!modifiers.contains(Modifier.PUBLIC) && !modulePackage.equals(mElements.getPackageOf(element))) {
+        return false;
+      }
+      element = element.getEnclosingElement();
+    }
+    return true;
+  }
+
+  private void writeDispatcher(TypeElement typeElement, String dispatcherClassName, Map<String, ExecutableElement> methods) throws IOException {
+    String packageName = mElements.getPackageOf(typeElement).getQualifiedName().toString();
+    String simpleClassName = packageName.isEmpty() ? dispatcherClassName : dispatcherClassName.substring(packageName.length() + 1);
+    String moduleClassName = mTypes.erasure(typeElement.asType()).toString();
+
+    StringBuilder source = new StringBuilder();
+    source.append("// Generated by ").append(getClass().getName()).append(". Do not edit.\n");
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+    source.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+    source.append("public final class ").append(simpleClassName).append(" implements ").append(DISPATCHER_INTERFACE_NAME).append(" {\n");
+
+    source.append("  private static final String[] METHOD_NAMES = new String[] {\n");
+    for (String name : methods.keySet()) {
+      source.append("    \"").append(name).append("\",\n");
+    }
+    source.append("  };\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public String[] getMethodNames() {\n");
+    source.append("    return METHOD_NAMES.clone();\n");
+    source.append("  }\n\n");
+
+    source.append("  @Override\n");
+    source.append("  public Object invoke(").append(EXPORTED_MODULE_CLASS_NAME).append(" module, int methodKey, Object[] arguments) {\n");
+    source.append("    ").append(moduleClassName).append(" target = (").append(moduleClassName).append(") module;\n");
+    source.append("    switch (methodKey) {\n");
+
+    int methodKey = 0;
+    for (Map.Entry<String, ExecutableElement> entry : methods.entrySet()) {
+      appendCase(source, methodKey++, entry.getKey(), entry.getValue());
+    }
+
+    source.append("      default:\n");
+    source.append("        throw new IllegalArgumentException(\"Module \" + module.getName() + \" does not export method with key \" + methodKey + \".\");\n");
+    source.append("    }\n");
+    source.append("  }\n");
+    source.append("}\n");
+
+    // Dispatchers of nested modules are top-level classes, so their binary and canonical names are the same.
+    JavaFileObject sourceFile = mFiler.createSourceFile(dispatcherClassName, typeElement);
+    Writer writer = sourceFile.openWriter();
+    try {
+      writer.write(source.toString());
+    } finally {
+      writer.close();
+    }
+  }
+
+  private void appendCase(StringBuilder source, int methodKey, String name, ExecutableElement method) {
+    List<? extends VariableElement> parameters = method.getParameters();
+
+    source.append("      case ").append(methodKey).append(": {\n");
+    for (int i = 0; i < parameters.size(); i++) {
+      source.append("        final ").append(getSourceType(parameters.get(i).asType())).append(" arg").append(i).append(";\n");
+    }
+    source.append("        try {\n");
+    for (int i = 0; i < parameters.size(); i++) {
+      source.append("          arg").append(i).append(" = ").append(getArgumentConversion(parameters.get(i).asType(), "arguments[" + i + "]")).append(";\n");
+    }
+    source.append("        } catch (ClassCastException | NullPointerException e) {\n");
+    source.append("          throw new IllegalArgumentException(\"Arguments of method ").append(name)
+        .append(" of module \" + module.getName() + \" are of incompatible classes: \" + e.getMessage(), e);\n");
+    source.append("        }\n");
+
+    StringBuilder call = new StringBuilder("target.").append(name).append("(");
+    for (int i = 0; i < parameters.size(); i++) {
+      call.append(i > 0 ? ", " : "").append("arg").append(i);
+    }
+    call.append(")");
+
+    source.append("        try {\n");
+    if (method.getReturnType().getKind() == TypeKind.VOID) {
+      source.append("          ").append(call).append(";\n");
+      source.append("          return null;\n");
+    } else {
+      source.append("          return ").append(call).append(";\n");
+    }
+    // Keep the behavior of Method#invoke, which wraps anything thrown by the method.
+    source.append("        } catch (Exception e) {\n");
+    source.append("          throw new RuntimeException(\"Exception occurred while executing exported method ").append(name)
+        .append(" on module \" + module.getName() + \": \" + e.getMessage(), e);\n");
+    source.append("        }\n");
+    source.append("      }\n");
+  }
+
+  private String getSourceType(TypeMirror type) {
+    return type.getKind().isPrimitive() ? type.toString() : mTypes.erasure(type).toString();
+  }
+
+  private String getArgumentConversion(TypeMirror type, String argument) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+        return "(Boolean) " + argument;
+      case CHAR:
+        return "(Character) " + argument;
+      case BYTE:
+        return "((Number) " + argument + ").byteValue()";
+      case SHORT:
+        return "((Number) " + argument + ").shortValue()";
+      case INT:
+        return "((Number) " + argument + ").intValue()";
+      case LONG:
+        return "((Number) " + argument + ").longValue()";
+      case FLOAT:
+        return "((Number) " + argument + ").floatValue()";
+      case DOUBLE:
+        return "((Number) " + argument + ").doubleValue()";
+      default:
+        return "(" + getSourceType(type) + ") " + argument;
+    }
+  }
+}
@@ -2,6 +2,11 @@ package org.unimodules.core;
 
 public class ArgumentsHelper {
   /* package */ static Object validatedArgumentForClass(Object argument, Class<?> expectedArgumentClass) {
+    if (argument != null && argument.getClass() == expectedArgumentClass) {
+      // Most common case, nothing to validate.
+      return argument;
+    }
+
     if (Object.class.isAssignableFrom(expectedArgumentClass)) {
       // Expected argument class is an Object descendant
       if (argument != null) {
@@ -0,0 +1,29 @@
+package org.unimodules.core;
+
+/**
+ * Calls methods exported by an {@link ExportedModule} directly, without going through reflection.
+ * Implementations are generated at compile time by the unimodules-core annotation processor
+ * for every module declaring methods annotated with {@link org.unimodules.core.interfaces.ExpoMethod}
+ * and are looked up by name, see {@link #CLASS_NAME_SUFFIX}.
+ */
+public interface ExportedMethodsDispatcher {
+  /**
+   * Suffix appended to the binary name of the module class to get the name of its dispatcher,
+   * eg. {@code com.example.MyModule$$ExportedMethodsDispatcher}.
+   */
+  String CLASS_NAME_SUFFIX = "$$ExportedMethodsDispatcher";
+
+  /**
+   * Returns names of methods the dispatcher can call, position of a name in the array
+   * is the key under which the method is passed to {@link #invoke(ExportedModule, int, Object[])}.
+   */
+  String[] getMethodNames();
+
+  /**
+   * Invokes method with given key on the module. Arguments are expected to be already
+   * validated with {@link ExportedModule#transformArgumentToClass(Object, Class)}.
+   * Throws {@link IllegalArgumentException} if the key is unknown or an argument can't be cast
+   * to the parameter type.
+   */
+  Object invoke(ExportedModule module, int methodKey, Object[] arguments);
+}
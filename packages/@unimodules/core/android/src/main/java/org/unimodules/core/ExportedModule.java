@@ -1,15 +1,13 @@
 package org.unimodules.core;
 
 import android.content.Context;
+import android.util.Log;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.unimodules.core.interfaces.ExpoMethod;
@@ -21,20 +19,75 @@ import org.unimodules.core.interfaces.ExpoMethod;
  * to support them.
  */
 public abstract class ExportedModule {
+  private static final String TAG = ExportedModule.class.getSimpleName();
+
   public class MethodInfo {
+    private String mName;
+    private Method mMethod;
     private Class<?>[] mParameterTypes;
+    private MethodQueue mQueue;
+    private int mDispatcherKey;
 
-    MethodInfo(Method method) {
+    MethodInfo(String name, Method method, int dispatcherKey) {
+      mName = name;
+      mMethod = method;
       mParameterTypes = method.getParameterTypes();
+      mDispatcherKey = dispatcherKey;
+
+      ExpoMethod annotation = method.getAnnotation(ExpoMethod.class);
+      mQueue = annotation != null ? annotation.queue() : MethodQueue.DEFAULT;
+      if (mQueue == MethodQueue.DEFAULT) {
+        mQueue = getDefaultMethodQueue();
+      }
+    }
+
+    public String getName() {
+      return mName;
     }
 
     public Class<?>[] getParameterTypes() {
       return mParameterTypes;
     }
+
+    /**
+     * Returns the queue the method should be executed on, never {@link MethodQueue#DEFAULT}.
+     */
+    public MethodQueue getQueue() {
+      return mQueue;
+    }
+
+    /* package */ Method getMethod() {
+      return mMethod;
+    }
+
+    /**
+     * Returns the key under which the method is known to the generated {@link ExportedMethodsDispatcher}
+     * or -1 if it has to be invoked through reflection.
+     */
+    /* package */ int getDispatcherKey() {
+      return mDispatcherKey;
+    }
   }
+  /**
+   * Describes where platform adapters should execute an exported method.
+   */
+  public enum MethodQueue {
+    /** Use module's default queue, see {@link ExportedModule#getDefaultMethodQueue()}. */
+    DEFAULT,
+    /** Execute synchronously on the thread the call has been received on, eg. React Native's native modules thread. */
+    CALLER,
+    /** Execute on a serial queue owned by the module, so that slow calls block only the calling module. */
+    MODULE,
+    /** Execute on a bounded thread pool shared by all modules, meant for I/O-bound work. */
+    IO,
+    /** Execute on the main (UI) thread. */
+    MAIN
+  }
+
   private Context mContext;
   private Map<String, Method> mExportedMethods;
   private Map<String, MethodInfo> mExportedMethodInfos;
+  private ExportedMethodsDispatcher mExportedMethodsDispatcher;
 
   public ExportedModule(Context context) {
     mContext = context;
@@ -50,6 +103,14 @@ public abstract class ExportedModule {
     return mContext;
   }
 
+  /**
+   * Returns the queue used for exported methods which don't specify {@link ExpoMethod#queue()}.
+   * Override to move all of module's methods off the thread calls are received on.
+   */
+  public MethodQueue getDefaultMethodQueue() {
+    return MethodQueue.CALLER;
+  }
+
   /**
    * Returns a map of { exportedMethodName => methodInfo } so that eg. platform adapter knows
    * what classes of arguments does the method expect.
@@ -59,41 +120,93 @@ public abstract class ExportedModule {
       return mExportedMethodInfos;
     }
 
+    Map<String, Integer> dispatcherKeys = new HashMap<>();
+    mExportedMethodsDispatcher = loadExportedMethodsDispatcher();
+    if (mExportedMethodsDispatcher != null) {
+      String[] dispatchedMethodNames = mExportedMethodsDispatcher.getMethodNames();
+      for (int i = 0; i < dispatchedMethodNames.length; i++) {
+        dispatcherKeys.put(dispatchedMethodNames[i], i);
+      }
+    }
+
     Map<String, MethodInfo> exportedMethodInfos = new HashMap<>();
     for(Map.Entry<String, Method> entry : getExportedMethods().entrySet()) {
-      exportedMethodInfos.put(entry.getKey(), new MethodInfo(entry.getValue()));
+      Method method = entry.getValue();
+      Integer dispatcherKey = dispatcherKeys.get(entry.getKey());
+      if (dispatcherKey == null) {
+        // Skipping access checks makes subsequent Method#invoke calls noticeably cheaper.
+        method.setAccessible(true);
+      }
+      exportedMethodInfos.put(entry.getKey(), new MethodInfo(entry.getKey(), method, dispatcherKey != null ? dispatcherKey : -1));
     }
     mExportedMethodInfos = exportedMethodInfos;
     return mExportedMethodInfos;
   }
 
+  /**
+   * Instantiates the {@link ExportedMethodsDispatcher} generated for the module's class at compile time.
+   * Returns null if none has been generated, eg. when the module has been compiled
+   * without the annotation processor, in which case exported methods are invoked through reflection.
+   */
+  private ExportedMethodsDispatcher loadExportedMethodsDispatcher() {
+    Class<?> klass = getClass();
+    try {
+      Class<?> dispatcherClass = Class.forName(klass.getName() + ExportedMethodsDispatcher.CLASS_NAME_SUFFIX, true, klass.getClassLoader());
+      return (ExportedMethodsDispatcher) dispatcherClass.newInstance();
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (InstantiationException | IllegalAccessException | ClassCastException e) {
+      Log.w(TAG, "Could not instantiate exported methods dispatcher of module " + getName() + ", falling back to reflection.", e);
+      return null;
+    }
+  }
+
   /**
    * Invokes an exported method
    */
   public Object invokeExportedMethod(String methodName, Collection<Object> arguments) throws NoSuchMethodException, RuntimeException {
-    Method method = mExportedMethods.get(methodName);
+    return invokeExportedMethod(methodName, arguments.toArray());
+  }
 
-    if (method  == null) {
+  /**
+   * Invokes an exported method with arguments already laid out in an array, so that platform adapters
+   * don't have to allocate an intermediate collection for every call. Arguments are transformed in place.
+   */
+  public Object invokeExportedMethod(String methodName, Object[] arguments) throws NoSuchMethodException, RuntimeException {
+    MethodInfo methodInfo = getExportedMethodInfos().get(methodName);
+
+    if (methodInfo == null) {
       throw new NoSuchMethodException("Module " + getName() + "does not export method " + methodName + ".");
     }
 
-    int expectedArgumentsCount = method.getParameterTypes().length;
-    if (arguments.size() != expectedArgumentsCount) {
+    return invokeExportedMethod(methodInfo, arguments);
+  }
+
+  /**
+   * Invokes an exported method described by a {@link MethodInfo} obtained from {@link #getExportedMethodInfos()},
+   * sparing the lookup by name. Methods known to the generated {@link ExportedMethodsDispatcher}
+   * are called directly, the rest through reflection.
+   */
+  public Object invokeExportedMethod(MethodInfo methodInfo, Object[] arguments) throws RuntimeException {
+    String methodName = methodInfo.getName();
+    Class<?>[] expectedArgumentClasses = methodInfo.getParameterTypes();
+    int expectedArgumentsCount = expectedArgumentClasses.length;
+    if (arguments.length != expectedArgumentsCount) {
       throw new IllegalArgumentException(
               "Method " + methodName + " on class " + getName() + " expects " + expectedArgumentsCount + " arguments, "
-                      + "whereas " + arguments.size() + " arguments have been provided.");
+                      + "whereas " + arguments.length + " arguments have been provided.");
     }
 
-    Class<?>[] expectedArgumentClasses = method.getParameterTypes();
-    Iterator<Object> actualArgumentsIterator = arguments.iterator();
-    List<Object> transformedArguments = new ArrayList<>(arguments.size());
-
     for (int i = 0; i < expectedArgumentsCount; i++) {
-      transformedArguments.add(transformArgumentToClass(actualArgumentsIterator.next(), expectedArgumentClasses[i]));
+      arguments[i] = transformArgumentToClass(arguments[i], expectedArgumentClasses[i]);
+    }
+
+    if (methodInfo.getDispatcherKey() >= 0) {
+      return mExportedMethodsDispatcher.invoke(this, methodInfo.getDispatcherKey(), arguments);
     }
 
     try {
-      return method.invoke(this, transformedArguments.toArray());
+      return methodInfo.getMethod().invoke(this, arguments);
     } catch (IllegalAccessException | InvocationTargetException e) {
       e.printStackTrace();
       throw new RuntimeException("Exception occurred while executing exported method " + methodName
@@ -2,11 +2,15 @@ package org.unimodules.core.interfaces;
 
 import java.lang.annotation.Retention;
 
+import org.unimodules.core.ExportedModule;
+
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
 /**
  * Methods annotated with {@link ExpoMethod} will get exported to client code realm.
+ * Use {@link #queue()} to choose where the method gets executed, see {@link ExportedModule.MethodQueue}.
  */
 @Retention(RUNTIME)
 public @interface ExpoMethod {
+  ExportedModule.MethodQueue queue() default ExportedModule.MethodQueue.DEFAULT;
 }
@@ -25,4 +25,13 @@ public interface EventEmitter {
   void emit(int viewId, String eventName, Bundle eventBody);
   void emit(String eventName, Bundle eventBody);
   void emit(int viewId, Event event);
+
+  /**
+   * Emits an event which may be coalesced with other events of the same name and coalescing key.
+   * Only the latest of such events is delivered, at most once per frame, together with
+   * all other coalesced events pending at that time. Meant for high-rate events, like sensor updates
+   * or progress reports, for which only the most recent value matters. The bundle is copied, so it can be reused
+   * for subsequent events, but values it holds (eg. arrays or nested bundles) must not be modified afterwards.
+   */
+  void emitCoalesced(String eventName, String coalescingKey, Bundle eventBody);
 }
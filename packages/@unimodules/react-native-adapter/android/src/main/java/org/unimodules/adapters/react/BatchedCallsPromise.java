@@ -0,0 +1,81 @@
+package org.unimodules.adapters.react;
+
+import com.facebook.react.bridge.Arguments;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.unimodules.core.Promise;
+
+/**
+ * Collects results of calls made with {@link NativeModulesProxy#callMethods} and resolves
+ * the underlying {@link com.facebook.react.bridge.Promise} once all of the calls have settled.
+ * Results are ordered the same way as the calls.
+ */
+/* package */ class BatchedCallsPromise {
+  private final static String RESULT_KEY = "result";
+  private final static String ERROR_KEY = "error";
+  private final static String ERROR_CODE_KEY = "code";
+  private final static String ERROR_MESSAGE_KEY = "message";
+
+  private final com.facebook.react.bridge.Promise mPromise;
+  private final Map<String, Object>[] mResults;
+  private final AtomicInteger mPendingCallsCount;
+
+  @SuppressWarnings("unchecked")
+  /* package */ BatchedCallsPromise(int callsCount, com.facebook.react.bridge.Promise promise) {
+    mPromise = promise;
+    mResults = new Map[callsCount];
+    mPendingCallsCount = new AtomicInteger(callsCount);
+
+    if (callsCount == 0) {
+      mPromise.resolve(Arguments.createArray());
+    }
+  }
+
+  /* package */ Promise getPromiseForCall(final int index) {
+    return new Promise() {
+      private boolean mIsSettled = false;
+
+      @Override
+      public void resolve(Object value) {
+        Map<String, Object> result = new HashMap<>(1);
+        result.put(RESULT_KEY, value);
+        settle(result);
+      }
+
+      @Override
+      public void reject(String code, String message, Throwable e) {
+        Map<String, Object> error = new HashMap<>(2);
+        error.put(ERROR_CODE_KEY, code);
+        error.put(ERROR_MESSAGE_KEY, message);
+        Map<String, Object> result = new HashMap<>(1);
+        result.put(ERROR_KEY, error);
+        settle(result);
+      }
+
+      private synchronized void settle(Map<String, Object> result) {
+        // Promises can be settled only once, just like the React Native ones.
+        if (mIsSettled) {
+          return;
+        }
+        mIsSettled = true;
+        onCallSettled(index, result);
+      }
+    };
+  }
+
+  private void onCallSettled(int index, Map<String, Object> result) {
+    mResults[index] = result;
+    if (mPendingCallsCount.decrementAndGet() == 0) {
+      List<Object> results = new ArrayList<>(mResults.length);
+      for (Map<String, Object> callResult : mResults) {
+        results.add(callResult);
+      }
+      mPromise.resolve(Arguments.makeNativeArray(results));
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package org.unimodules.adapters.react;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unimodules.core.ExportedModule;
+
+/**
+ * Executes exported methods' calls on queues requested with {@link ExportedModule.MethodQueue}
+ * and keeps track of each queue's depth and of the time calls spend waiting in it.
+ */
+/* package */ class MethodQueuesExecutor {
+  private final static String IO_QUEUE_NAME = "io";
+  private final static String MAIN_QUEUE_NAME = "main";
+  private final static String MODULE_QUEUE_NAME_PREFIX = "module:";
+
+  private final static int IO_POOL_SIZE = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  private final static long IDLE_THREAD_KEEP_ALIVE_SECONDS = 30;
+
+  private final static String METRICS_DEPTH_KEY = "depth";
+  private final static String METRICS_MAX_DEPTH_KEY = "maxDepth";
+  private final static String METRICS_EXECUTED_COUNT_KEY = "executedCount";
+  private final static String METRICS_AVERAGE_WAIT_TIME_KEY = "averageWaitTimeMs";
+  private final static String METRICS_MAX_WAIT_TIME_KEY = "maxWaitTimeMs";
+
+  private final ExecutorService mIOExecutor;
+  private final Handler mMainHandler;
+  private final Map<String, ExecutorService> mModuleExecutors = new HashMap<>();
+  private final Map<String, QueueMetrics> mMetrics = new HashMap<>();
+  private boolean mIsShutdown = false;
+
+  /* package */ MethodQueuesExecutor() {
+    mIOExecutor = createExecutor(IO_POOL_SIZE, "expo-io");
+    mMainHandler = new Handler(Looper.getMainLooper());
+  }
+
+  /**
+   * Runs the runnable on the queue. {@link ExportedModule.MethodQueue#CALLER} runs it synchronously.
+   * Throws {@link RejectedExecutionException} if the runnable can't be enqueued, eg. after {@link #shutdown()}.
+   */
+  /* package */ void execute(String moduleName, ExportedModule.MethodQueue queue, Runnable runnable) {
+    MeasuredRunnable measuredRunnable;
+    switch (queue) {
+      case MODULE:
+        measuredRunnable = new MeasuredRunnable(getMetrics(MODULE_QUEUE_NAME_PREFIX + moduleName), runnable);
+        try {
+          getModuleExecutor(moduleName).execute(measuredRunnable);
+        } catch (RejectedExecutionException e) {
+          measuredRunnable.onRejected();
+          throw e;
+        }
+        break;
+      case IO:
+        measuredRunnable = new MeasuredRunnable(getMetrics(IO_QUEUE_NAME), runnable);
+        try {
+          mIOExecutor.execute(measuredRunnable);
+        } catch (RejectedExecutionException e) {
+          measuredRunnable.onRejected();
+          throw e;
+        }
+        break;
+      case MAIN:
+        measuredRunnable = new MeasuredRunnable(getMetrics(MAIN_QUEUE_NAME), runnable);
+        if (!mMainHandler.post(measuredRunnable)) {
+          measuredRunnable.onRejected();
+          throw new RejectedExecutionException("Main looper is exiting.");
+        }
+        break;
+      case CALLER:
+      case DEFAULT:
+      default:
+        runnable.run();
+        break;
+    }
+  }
+
+  /**
+   * Returns a map of { queueName => { depth, maxDepth, executedCount, averageWaitTimeMs, maxWaitTimeMs } }.
+   */
+  /* package */ synchronized Map<String, Object> getMetrics() {
+    Map<String, Object> metrics = new HashMap<>(mMetrics.size());
+    for (Map.Entry<String, QueueMetrics> entry : mMetrics.entrySet()) {
+      metrics.put(entry.getKey(), entry.getValue().toMap());
+    }
+    return metrics;
+  }
+
+  /* package */ synchronized void shutdown() {
+    mIsShutdown = true;
+    mIOExecutor.shutdown();
+    for (ExecutorService executor : mModuleExecutors.values()) {
+      executor.shutdown();
+    }
+    mModuleExecutors.clear();
+  }
+
+  private synchronized ExecutorService getModuleExecutor(String moduleName) {
+    if (mIsShutdown) {
+      throw new RejectedExecutionException("Queues executor has been shut down.");
+    }
+    ExecutorService executor = mModuleExecutors.get(moduleName);
+    if (executor == null) {
+      executor = createExecutor(1, "expo-" + moduleName);
+      mModuleExecutors.put(moduleName, executor);
+    }
+    return executor;
+  }
+
+  private synchronized QueueMetrics getMetrics(String queueName) {
+    QueueMetrics metrics = mMetrics.get(queueName);
+    if (metrics == null) {
+      metrics = new QueueMetrics();
+      mMetrics.put(queueName, metrics);
+    }
+    return metrics;
+  }
+
+  private static ExecutorService createExecutor(int poolSize, final String threadNamePrefix) {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        poolSize,
+        poolSize,
+        IDLE_THREAD_KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(),
+        new ThreadFactory() {
+          private final AtomicInteger mThreadsCount = new AtomicInteger(0);
+
+          @Override
+          public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, threadNamePrefix + "-" + mThreadsCount.incrementAndGet());
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static class QueueMetrics {
+    private final AtomicInteger mDepth = new AtomicInteger(0);
+    private final AtomicInteger mMaxDepth = new AtomicInteger(0);
+    private final AtomicLong mExecutedCount = new AtomicLong(0);
+    private final AtomicLong mTotalWaitTimeNanos = new AtomicLong(0);
+    private final AtomicLong mMaxWaitTimeNanos = new AtomicLong(0);
+
+    void onEnqueued() {
+      int depth = mDepth.incrementAndGet();
+      int maxDepth;
+      while (depth > (maxDepth = mMaxDepth.get()) && !mMaxDepth.compareAndSet(maxDepth, depth)) {
+        // retry
+      }
+    }
+
+    void onRejected() {
+      mDepth.decrementAndGet();
+    }
+
+    void onDequeued(long waitTimeNanos) {
+      mDepth.decrementAndGet();
+      mExecutedCount.incrementAndGet();
+      mTotalWaitTimeNanos.addAndGet(waitTimeNanos);
+      long maxWaitTimeNanos;
+      while (waitTimeNanos > (maxWaitTimeNanos = mMaxWaitTimeNanos.get()) && !mMaxWaitTimeNanos.compareAndSet(maxWaitTimeNanos, waitTimeNanos)) {
+        // retry
+      }
+    }
+
+    Map<String, Object> toMap() {
+      long executedCount = mExecutedCount.get();
+      Map<String, Object> map = new HashMap<>(5);
+      map.put(METRICS_DEPTH_KEY, mDepth.get());
+      map.put(METRICS_MAX_DEPTH_KEY, mMaxDepth.get());
+      map.put(METRICS_EXECUTED_COUNT_KEY, (double) executedCount);
+      map.put(METRICS_AVERAGE_WAIT_TIME_KEY, executedCount > 0 ? nanosToMillis(mTotalWaitTimeNanos.get() / executedCount) : 0.0);
+      map.put(METRICS_MAX_WAIT_TIME_KEY, nanosToMillis(mMaxWaitTimeNanos.get()));
+      return map;
+    }
+
+    private static double nanosToMillis(long nanos) {
+      return nanos / 1e6;
+    }
+  }
+
+  private static class MeasuredRunnable implements Runnable {
+    private final QueueMetrics mMetrics;
+    private final Runnable mRunnable;
+    private final long mEnqueuedAtNanos;
+
+    MeasuredRunnable(QueueMetrics metrics, Runnable runnable) {
+      mMetrics = metrics;
+      mRunnable = runnable;
+      mEnqueuedAtNanos = System.nanoTime();
+      mMetrics.onEnqueued();
+    }
+
+    void onRejected() {
+      mMetrics.onRejected();
+    }
+
+    @Override
+    public void run() {
+      mMetrics.onDequeued(System.nanoTime() - mEnqueuedAtNanos);
+      mRunnable.run();
+    }
+  }
+}
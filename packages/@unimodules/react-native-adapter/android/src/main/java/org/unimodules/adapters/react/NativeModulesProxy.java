@@ -2,6 +2,7 @@ package org.unimodules.adapters.react;
 
 import android.util.SparseArray;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Dynamic;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
@@ -21,6 +22,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.Nullable;
 
@@ -43,12 +45,14 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
   private final static String ARGS_TYPES_MISMATCH_ERROR = "E_ARGS_TYPES_MISMATCH";
 
   private ModuleRegistry mModuleRegistry;
+  private MethodQueuesExecutor mMethodQueuesExecutor;
   private Map<String, Map<String, Integer>> mExportedMethodsKeys;
   private Map<String, SparseArray<String>> mExportedMethodsReverseKeys;
 
   public NativeModulesProxy(ReactApplicationContext context, ModuleRegistry moduleRegistry) {
     super(context);
     mModuleRegistry = moduleRegistry;
+    mMethodQueuesExecutor = new MethodQueuesExecutor();
     mExportedMethodsKeys = new HashMap<>();
     mExportedMethodsReverseKeys = new HashMap<>();
   }
@@ -91,7 +95,6 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
   }
 
   /**
-   * The only exported {@link ReactMethod}.
    * JavaScript can call native modules' exported methods ({@link ExpoMethod}) using this method as a proxy.
    * For native {@link ExpoMethod} `void put(String key, int value)` in `NativeDictionary` module
    * JavaScript could call `NativeModulesProxy.callMethod("NativeDictionary", "put", ["key", 42])`
@@ -100,44 +103,131 @@ public class NativeModulesProxy extends ReactContextBaseJavaModule {
    */
   @ReactMethod
   public void callMethod(String moduleName, Dynamic methodKeyOrName, ReadableArray arguments, final Promise promise) {
-    String methodName;
+    invokeExportedMethod(moduleName, methodKeyOrName, arguments, new PromiseWrapper(promise));
+  }
+
+  /**
+   * Calls multiple exported methods in one bridge round-trip.
+   * Each element of `calls` is an array of the same three arguments {@link #callMethod} expects,
+   * eg. `NativeModulesProxy.callMethods([["NativeDictionary", 2, ["key", 42]], ["NativeDictionary", "get", ["key"]]])`.
+   * The promise resolves (once all of the calls settle) with an array of results in the same order as calls,
+   * where each result is either `{ result }` or `{ error: { code, message } }`.
+   */
+  @ReactMethod
+  public void callMethods(ReadableArray calls, final Promise promise) {
+    BatchedCallsPromise batch = new BatchedCallsPromise(calls.size(), promise);
+
+    for (int i = 0; i < calls.size(); i++) {
+      org.unimodules.core.Promise callPromise = batch.getPromiseForCall(i);
+      ReadableArray call = calls.getType(i) == ReadableType.Array ? calls.getArray(i) : null;
+      if (call == null
+          || call.size() != 3
+          || call.getType(0) != ReadableType.String
+          || call.getType(2) != ReadableType.Array) {
+        callPromise.reject(UNEXPECTED_ERROR, "Call " + i + " of a batch is not a [moduleName, methodKeyOrName, arguments] tuple.");
+        continue;
+      }
+      // A failing call must not prevent the remaining calls of the batch from being executed.
+      try {
+        invokeExportedMethod(call.getString(0), call.getDynamic(1), call.getArray(2), callPromise);
+      } catch (RuntimeException e) {
+        callPromise.reject(UNEXPECTED_ERROR, "Encountered an exception while calling native method: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Resolves with a map of { queueName => metrics } of queues exported methods have been executed on,
+   * see {@link ExportedModule.MethodQueue}. Each queue reports its current and maximum depth,
+   * the number of executed calls and average and maximum time calls have waited in the queue.
+   */
+  @ReactMethod
+  public void getMethodQueuesMetrics(final Promise promise) {
+    promise.resolve(Arguments.makeNativeMap(mMethodQueuesExecutor.getMetrics()));
+  }
+
+  @Override
+  public void onCatalystInstanceDestroy() {
+    super.onCatalystInstanceDestroy();
+    mMethodQueuesExecutor.shutdown();
+  }
+
+  private void invokeExportedMethod(final String moduleName, Dynamic methodKeyOrName, ReadableArray arguments, final org.unimodules.core.Promise promise) {
+    final String methodName;
     if (methodKeyOrName.getType() == ReadableType.String) {
       methodName = methodKeyOrName.asString();
     } else if (methodKeyOrName.getType() == ReadableType.Number) {
-      methodName = mExportedMethodsReverseKeys.get(moduleName).get(methodKeyOrName.asInt());
+      SparseArray<String> moduleMethodNames = mExportedMethodsReverseKeys.get(moduleName);
+      methodName = moduleMethodNames != null ? moduleMethodNames.get(methodKeyOrName.asInt()) : null;
+      if (methodName == null) {
+        promise.reject(UNDEFINED_METHOD_ERROR, "Method with key " + methodKeyOrName.asInt() + " of Java module " + moduleName + " is undefined.");
+        return;
+      }
     } else {
       promise.reject(UNEXPECTED_ERROR, "Method key is neither a String nor an Integer -- don't know how to map it to method name.");
       return;
     }
 
+    final ExportedModule module;
+    final ExportedModule.MethodInfo methodInfo;
+    final Object[] nativeArguments;
+    final ExportedModule.MethodQueue queue;
+    try {
+      module = mModuleRegistry.getExportedModule(moduleName);
+      methodInfo = module.getExportedMethodInfos().get(methodName);
+      if (methodInfo == null) {
+        promise.reject(UNDEFINED_METHOD_ERROR, "Method " + methodName + " of Java module " + moduleName + " is undefined.");
+        return;
+      }
+      nativeArguments = getNativeArgumentsForMethod(arguments, methodInfo);
+      nativeArguments[nativeArguments.length - 1] = promise;
+      queue = methodInfo.getQueue();
+    } catch (IllegalArgumentException e) {
+      promise.reject(ARGS_TYPES_MISMATCH_ERROR, e.getMessage(), e);
+      return;
+    } catch (RuntimeException e) {
+      promise.reject(UNEXPECTED_ERROR, "Encountered an exception while calling native method: " + e.getMessage(), e);
+      return;
+    }
+
+    // Arguments are converted above, on the thread they have been received on,
+    // only the call itself may be moved to another queue.
     try {
-      List<Object> nativeArguments = getNativeArgumentsForMethod(arguments, mModuleRegistry.getExportedModule(moduleName).getExportedMethodInfos().get(methodName));
-      nativeArguments.add(new PromiseWrapper(promise));
+      mMethodQueuesExecutor.execute(moduleName, queue, new Runnable() {
+        @Override
+        public void run() {
+          invokeExportedMethod(module, methodInfo, nativeArguments, promise);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      promise.reject(UNEXPECTED_ERROR, "Method " + methodName + " of Java module " + moduleName + " could not be scheduled: " + e.getMessage(), e);
+    }
+  }
 
-      mModuleRegistry.getExportedModule(moduleName).invokeExportedMethod(methodName, nativeArguments);
+  private static void invokeExportedMethod(ExportedModule module, ExportedModule.MethodInfo methodInfo, Object[] nativeArguments, org.unimodules.core.Promise promise) {
+    try {
+      // Method info has already been looked up, so there's no need to resolve it by name again.
+      module.invokeExportedMethod(methodInfo, nativeArguments);
     } catch (IllegalArgumentException e) {
       promise.reject(ARGS_TYPES_MISMATCH_ERROR, e.getMessage(), e);
     } catch (RuntimeException e) {
       promise.reject(UNEXPECTED_ERROR, "Encountered an exception while calling native method: " + e.getMessage(), e);
-    } catch (NoSuchMethodException e) {
-      promise.reject(
-          UNDEFINED_METHOD_ERROR,
-          "Method " + methodName + " of Java module " + moduleName + " is undefined.",
-          e
-      );
     }
   }
 
   /**
-   * Converts {@link ReadableArray} of arguments into a list of Java Objects.
+   * Converts {@link ReadableArray} of arguments into an array of Java Objects.
+   * The returned array has one more, empty slot at the end, meant for the promise.
    * Throws {@link RuntimeException} if it can't convert some {@link ReadableType} to Object.
    * Method is used when converting Double to proper argument.
    */
-  private static List<Object> getNativeArgumentsForMethod(ReadableArray arguments, ExportedModule.MethodInfo methodInfo) {
-    List<Object> nativeArguments = new ArrayList<>();
+  private static Object[] getNativeArgumentsForMethod(ReadableArray arguments, ExportedModule.MethodInfo methodInfo) {
+    int argumentsCount = arguments.size();
+    Object[] nativeArguments = new Object[argumentsCount + 1];
+    Class<?>[] parameterTypes = methodInfo.getParameterTypes();
 
-    for (int i = 0; i < arguments.size(); i++) {
-      nativeArguments.add(ArgumentsHelper.getNativeArgumentForExpectedClass(arguments.getDynamic(i), methodInfo.getParameterTypes()[i]));
+    for (int i = 0; i < argumentsCount; i++) {
+      nativeArguments[i] = ArgumentsHelper.getNativeArgumentForExpectedClass(arguments.getDynamic(i), parameterTypes[i]);
     }
     return nativeArguments;
   }
@@ -1,21 +1,46 @@
 package org.unimodules.adapters.react.services;
 
 import android.os.Bundle;
+import android.view.Choreographer;
 
 import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.ReactContext;
+import com.facebook.react.bridge.UiThreadUtil;
+import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.modules.core.DeviceEventManagerModule;
 import com.facebook.react.uimanager.UIManagerModule;
 import com.facebook.react.uimanager.events.RCTEventEmitter;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.unimodules.core.interfaces.InternalModule;
 import org.unimodules.core.interfaces.services.EventEmitter;
 
 public class EventEmitterModule implements EventEmitter, InternalModule {
+  // Has to match the event name listened to in EventEmitter.ts
+  private final static String BATCHED_EVENTS_EVENT_NAME = "Expo.batchedEvents";
+
   private ReactContext mReactContext;
+  // Coalesced events waiting for the next frame, keyed by event name and coalescing key
+  private Map<String, PendingEvent> mPendingEvents = new LinkedHashMap<>();
+  private boolean mIsFlushScheduled = false;
+
+  private final Choreographer.FrameCallback mFlushFrameCallback = new Choreographer.FrameCallback() {
+    @Override
+    public void doFrame(long frameTimeNanos) {
+      flushPendingEvents();
+    }
+  };
+
+  private final Runnable mScheduleFlushRunnable = new Runnable() {
+    @Override
+    public void run() {
+      Choreographer.getInstance().postFrameCallback(mFlushFrameCallback);
+    }
+  };
 
   public EventEmitterModule(ReactContext reactContext) {
     mReactContext = reactContext;
@@ -56,11 +81,69 @@ public class EventEmitterModule implements EventEmitter, InternalModule {
     });
   }
 
+  @Override
+  public void emitCoalesced(String eventName, String coalescingKey, Bundle eventBody) {
+    String key = coalescingKey != null ? eventName + "/" + coalescingKey : eventName;
+    synchronized (this) {
+      // The body is converted only once the frame comes, emitters may reuse the bundle in the meantime,
+      // so it's copied - into the bundle of the coalesced event if there is one, to not allocate per event.
+      PendingEvent pendingEvent = mPendingEvents.get(key);
+      if (pendingEvent != null && pendingEvent.eventBody != null && eventBody != null) {
+        pendingEvent.eventBody.clear();
+        pendingEvent.eventBody.putAll(eventBody);
+      } else {
+        mPendingEvents.put(key, new PendingEvent(eventName, eventBody != null ? new Bundle(eventBody) : null));
+      }
+      if (mIsFlushScheduled) {
+        return;
+      }
+      mIsFlushScheduled = true;
+    }
+    UiThreadUtil.runOnUiThread(mScheduleFlushRunnable);
+  }
+
   @Override
   public List<Class> getExportedInterfaces() {
     return Collections.singletonList((Class) EventEmitter.class);
   }
 
+  private void flushPendingEvents() {
+    Map<String, PendingEvent> pendingEvents;
+    synchronized (this) {
+      pendingEvents = mPendingEvents;
+      mPendingEvents = new LinkedHashMap<>();
+      mIsFlushScheduled = false;
+    }
+
+    if (pendingEvents.isEmpty() || !mReactContext.hasActiveCatalystInstance()) {
+      return;
+    }
+
+    // All events go over the bridge in a single call, JS side unpacks and emits them one by one.
+    WritableArray events = Arguments.createArray();
+    for (PendingEvent pendingEvent : pendingEvents.values()) {
+      WritableArray event = Arguments.createArray();
+      event.pushString(pendingEvent.eventName);
+      if (pendingEvent.eventBody != null) {
+        event.pushMap(Arguments.fromBundle(pendingEvent.eventBody));
+      } else {
+        event.pushNull();
+      }
+      events.pushArray(event);
+    }
+    mReactContext.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(BATCHED_EVENTS_EVENT_NAME, events);
+  }
+
+  private static class PendingEvent {
+    final String eventName;
+    final Bundle eventBody;
+
+    PendingEvent(String eventName, Bundle eventBody) {
+      this.eventName = eventName;
+      this.eventBody = eventBody;
+    }
+  }
+
   private static com.facebook.react.uimanager.events.Event getReactEventFromEvent(final int viewId, final Event event) {
     return new com.facebook.react.uimanager.events.Event(viewId) {
       @Override
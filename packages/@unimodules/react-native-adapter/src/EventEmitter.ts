@@ -1,7 +1,19 @@
 import invariant from 'invariant';
-import { NativeEventEmitter, Platform } from 'react-native';
+import { DeviceEventEmitter, NativeEventEmitter, Platform } from 'react-native';
 const nativeEmitterSubscriptionKey = '@@nativeEmitterSubscription@@';
 
+// Coalesced events are sent from native code in batches of [eventName, eventBody] pairs,
+// once per frame. Re-emit them one by one so that listeners don't need to know about batching.
+const batchedEventsEventName = 'Expo.batchedEvents';
+
+if (Platform.OS === 'android') {
+  DeviceEventEmitter.addListener(batchedEventsEventName, (events: [string, any][]) => {
+    for (const [eventName, eventBody] of events) {
+      DeviceEventEmitter.emit(eventName, eventBody);
+    }
+  });
+}
+
 type NativeModule = {
   startObserving?: () => void;
   stopObserving?: () => void;
@@ -1,15 +1,20 @@
 package expo.modules.barcodescanner;
 
 import android.content.Context;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.SurfaceTexture;
 import android.hardware.Camera;
-import android.os.AsyncTask;
 import android.os.Handler;
 import android.os.Looper;
 import android.view.TextureView;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import expo.modules.barcodescanner.utils.FrameFactory;
+
 import org.unimodules.core.ModuleRegistry;
 import org.unimodules.interfaces.barcodescanner.BarCodeScanner;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerProvider;
@@ -17,6 +22,10 @@ import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerSettings;
 
 class BarCodeScannerViewFinder extends TextureView implements TextureView.SurfaceTextureListener, Camera.PreviewCallback {
+  // Number of buffers the camera fills with preview frames. While one frame is being decoded
+  // and another one waits for the decoder, the camera still has a buffer to fill.
+  private static final int PREVIEW_BUFFERS_COUNT = 3;
+
   private final ModuleRegistry mModuleRegistry;
   private int mCameraType;
   private SurfaceTexture mSurfaceTexture;
@@ -26,8 +35,11 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
   private BarCodeScannerView mBarCodeScannerView;
   private Camera mCamera;
 
-  // Concurrency lock for barcode scanner to avoid flooding the runtime
-  public static volatile boolean barCodeScannerTaskLock = false;
+  // Part of the preview that is decoded, in fractions of the preview's width and height. Null for the whole preview.
+  private volatile RectF mRegionOfInterest;
+
+  // Thread decoding preview frames, running as long as the camera is started.
+  private volatile DecoderThread mDecoderThread;
 
   // Scanner instance for the barcode scanning
   private BarCodeScanner mBarCodeScanner;
@@ -119,9 +131,21 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
 
         mCamera.setParameters(parameters);
         mCamera.setPreviewTexture(mSurfaceTexture);
+
+        // cache preview size as getting camera parameters is expensive
+        Camera.Parameters previewParameters = mCamera.getParameters();
+        Camera.Size previewSize = previewParameters.getPreviewSize();
+        int bufferSize = previewSize.width * previewSize.height * ImageFormat.getBitsPerPixel(previewParameters.getPreviewFormat()) / 8;
+
+        mDecoderThread = new DecoderThread(mCamera, previewSize.width, previewSize.height);
+        mDecoderThread.start();
+
         mCamera.startPreview();
-        // send previews to `onPreviewFrame`
-        mCamera.setPreviewCallback(this);
+        // send previews to `onPreviewFrame`, reusing the same few buffers instead of allocating one for each frame
+        for (int i = 0; i < PREVIEW_BUFFERS_COUNT; i++) {
+          mCamera.addCallbackBuffer(new byte[bufferSize]);
+        }
+        mCamera.setPreviewCallbackWithBuffer(this);
         mBarCodeScannerView.layoutViewFinder();
       } catch (NullPointerException e) {
         e.printStackTrace();
@@ -138,10 +162,21 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
     if (!mIsStopping) {
       mIsStopping = true;
       try {
+        if (mDecoderThread != null) {
+          mDecoderThread.quit();
+          // wait for the frame being decoded, so that the scanner is never used by two decoder threads at once
+          // when the camera gets started again
+          try {
+            mDecoderThread.join();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          mDecoderThread = null;
+        }
         if (mCamera != null) {
           mCamera.stopPreview();
           // stop sending previews to `onPreviewFrame`
-          mCamera.setPreviewCallback(null);
+          mCamera.setPreviewCallbackWithBuffer(null);
           ExpoBarCodeScanner.getInstance().releaseCameraInstance();
           mCamera = null;
         }
@@ -166,9 +201,12 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
   }
 
   public void onPreviewFrame(byte[] data, Camera camera) {
-    if (!BarCodeScannerViewFinder.barCodeScannerTaskLock) {
-      BarCodeScannerViewFinder.barCodeScannerTaskLock = true;
-      new BarCodeScannerAsyncTask(camera, data, mBarCodeScannerView).execute();
+    DecoderThread decoderThread = mDecoderThread;
+
+    if (decoderThread != null) {
+      decoderThread.offer(data);
+    } else {
+      camera.addCallbackBuffer(data);
     }
   }
 
@@ -176,47 +214,179 @@ class BarCodeScannerViewFinder extends TextureView implements TextureView.Surfac
     mBarCodeScanner.setSettings(settings);
   }
 
-  private class BarCodeScannerAsyncTask extends AsyncTask<Void, Void, Void> {
-    private byte[] mImageData;
-    private final Camera mCamera;
+  public void setRegionOfInterest(RectF regionOfInterest) {
+    mRegionOfInterest = regionOfInterest;
+  }
+
+  /**
+   * Returns the region of interest in coordinates of the preview frame, which is rotated by `rotation` degrees
+   * when displayed. Edges are rounded to even numbers, so that the region can be cut out of NV21 chroma plane as well.
+   * Returns null if the region is too small to be cut out.
+   */
+  private static Rect getFrameRegion(RectF regionOfInterest, int rotation, int previewWidth, int previewHeight) {
+    RectF region = new RectF();
+    switch (rotation) {
+      case 90:
+        region.set(regionOfInterest.top, 1 - regionOfInterest.right, regionOfInterest.bottom, 1 - regionOfInterest.left);
+        break;
+      case 180:
+        region.set(1 - regionOfInterest.right, 1 - regionOfInterest.bottom, 1 - regionOfInterest.left, 1 - regionOfInterest.top);
+        break;
+      case 270:
+        region.set(1 - regionOfInterest.bottom, regionOfInterest.left, 1 - regionOfInterest.top, regionOfInterest.right);
+        break;
+      default:
+        region.set(regionOfInterest);
+    }
+
+    Rect frameRegion = new Rect(
+        (int) (region.left * previewWidth) & ~1,
+        (int) (region.top * previewHeight) & ~1,
+        (int) (region.right * previewWidth) & ~1,
+        (int) (region.bottom * previewHeight) & ~1
+    );
+    if (!frameRegion.intersect(0, 0, previewWidth, previewHeight) || frameRegion.width() < 2 || frameRegion.height() < 2) {
+      return null;
+    }
+    return frameRegion;
+  }
+
+  /**
+   * Converts corner points of the barcode found in the region of interest to coordinates of the whole preview.
+   */
+  private static void transformResultToPreviewCoordinates(BarCodeScannerResult result, RectF regionOfInterest, int rotation, int frameWidth, int frameHeight) {
+    int previewWidth = rotation % 180 == 90 ? frameHeight : frameWidth;
+    int previewHeight = rotation % 180 == 90 ? frameWidth : frameHeight;
+    List<Integer> cornerPoints = result.getCornerPoints();
+    List<Integer> transformedPoints = new ArrayList<>(cornerPoints.size());
+
+    for (int i = 0; i + 1 < cornerPoints.size(); i += 2) {
+      float x = regionOfInterest.left + cornerPoints.get(i) / (float) result.getReferenceImageWidth() * regionOfInterest.width();
+      float y = regionOfInterest.top + cornerPoints.get(i + 1) / (float) result.getReferenceImageHeight() * regionOfInterest.height();
+      transformedPoints.add(Math.round(x * previewWidth));
+      transformedPoints.add(Math.round(y * previewHeight));
+    }
+
+    result.setCornerPoints(transformedPoints);
+    result.setReferenceImageWidth(previewWidth);
+    result.setReferenceImageHeight(previewHeight);
+  }
+
+  /**
+   * Long-lived thread decoding preview frames. It always decodes the newest frame - when a frame arrives while
+   * the previous one still waits to be decoded, the previous one is dropped. Decoded and dropped frames are given
+   * back to the camera to be filled again.
+   */
+  private class DecoderThread extends Thread {
+    private final Camera mFrameCamera;
+    // Size of preview frames, read once the camera is configured instead of for every frame.
+    private final int mPreviewWidth;
+    private final int mPreviewHeight;
+    private byte[] mPendingFrame;
+    private boolean mIsRunning = true;
+    // Buffer the region of interest is copied to for scanners which can't scan a region in place, reused between frames.
+    private byte[] mRegionData;
 
-    BarCodeScannerAsyncTask(Camera camera, byte[] imageData, BarCodeScannerView barCodeScannerView) {
-      mCamera = camera;
-      mImageData = imageData;
-      mBarCodeScannerView = barCodeScannerView;
+    DecoderThread(Camera camera, int previewWidth, int previewHeight) {
+      super("BarCodeScannerDecoder");
+      mFrameCamera = camera;
+      mPreviewWidth = previewWidth;
+      mPreviewHeight = previewHeight;
+    }
+
+    synchronized void offer(byte[] frame) {
+      if (!mIsRunning) {
+        return;
+      }
+      if (mPendingFrame != null) {
+        returnFrame(mPendingFrame);
+      }
+      mPendingFrame = frame;
+      notify();
+    }
+
+    synchronized void quit() {
+      mIsRunning = false;
+      mPendingFrame = null;
+      notify();
     }
 
     @Override
-    protected Void doInBackground(Void... ignored) {
-      if (isCancelled()) {
-        return null;
+    public void run() {
+      byte[] frame;
+      while ((frame = takeFrame()) != null) {
+        try {
+          decode(frame);
+        } catch (RuntimeException e) {
+          // a single frame the scanner failed on must not stop scanning of the following ones
+          e.printStackTrace();
+        }
+        synchronized (this) {
+          returnFrame(frame);
+        }
       }
+    }
 
+    private synchronized byte[] takeFrame() {
+      while (mIsRunning && mPendingFrame == null) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          return null;
+        }
+      }
+      byte[] frame = mPendingFrame;
+      mPendingFrame = null;
+      return frame;
+    }
+
+    private void returnFrame(byte[] frame) {
+      // the camera may be already released
+      if (mIsRunning) {
+        try {
+          mFrameCamera.addCallbackBuffer(frame);
+        } catch (RuntimeException e) {
+          // nothing to do, the camera doesn't need the buffer anymore
+        }
+      }
+    }
+
+    private void decode(byte[] frame) {
       // setting PreviewCallback does not really have an effect - this method is called anyway so we
       // need to check if camera changing is in progress or not
-      if (!mIsChanging && mCamera != null) {
-        Camera.Size size = mCamera.getParameters().getPreviewSize();
-
-        int width = size.width;
-        int height = size.height;
+      if (mIsChanging) {
+        return;
+      }
 
-        int properRotation = ExpoBarCodeScanner.getInstance().getRotation();
+      int rotation = ExpoBarCodeScanner.getInstance().getRotation();
+      RectF regionOfInterest = mRegionOfInterest;
+      Rect region = regionOfInterest != null ? getFrameRegion(regionOfInterest, rotation, mPreviewWidth, mPreviewHeight) : null;
+      final BarCodeScannerResult result;
 
-        final BarCodeScannerResult result = mBarCodeScanner.scan(mImageData, width,
-            height, properRotation);
+      if (region != null) {
+        if (mBarCodeScanner instanceof expo.modules.barcodescanner.scanners.ExpoBarCodeScanner) {
+          result = ((expo.modules.barcodescanner.scanners.ExpoBarCodeScanner) mBarCodeScanner).scan(frame, mPreviewWidth, mPreviewHeight, rotation, region);
+        } else {
+          // other scanners can only scan whole images, so the region is copied out of the frame for them
+          mRegionData = FrameFactory.copyRegion(frame, mPreviewWidth, mPreviewHeight, region, mRegionData);
+          result = mBarCodeScanner.scan(mRegionData, region.width(), region.height(), rotation);
+        }
 
         if (result != null) {
-          new Handler(Looper.getMainLooper()).post(new Runnable() {
-            @Override
-            public void run() {
-              mBarCodeScannerView.onBarCodeScanned(result);
-            }
-          });
+          transformResultToPreviewCoordinates(result, regionOfInterest, rotation, mPreviewWidth, mPreviewHeight);
         }
+      } else {
+        result = mBarCodeScanner.scan(frame, mPreviewWidth, mPreviewHeight, rotation);
       }
 
-      BarCodeScannerViewFinder.barCodeScannerTaskLock = false;
-      return null;
+      if (result != null) {
+        new Handler(Looper.getMainLooper()).post(new Runnable() {
+          @Override
+          public void run() {
+            mBarCodeScannerView.onBarCodeScanned(result);
+          }
+        });
+      }
     }
   }
 }
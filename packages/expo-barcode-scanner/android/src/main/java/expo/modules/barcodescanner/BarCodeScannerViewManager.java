@@ -1,6 +1,7 @@
 package expo.modules.barcodescanner;
 
 import android.content.Context;
+import android.graphics.RectF;
 import android.support.annotation.Nullable;
 
 import org.unimodules.core.ModuleRegistry;
@@ -78,4 +79,29 @@ public class BarCodeScannerViewManager extends ViewManager<BarCodeScannerView> i
     }};
     view.setBarCodeScannerSettings(settings);
   }
+
+  @ExpoProp(name = "regionOfInterest")
+  public void setRegionOfInterest(BarCodeScannerView view, @Nullable Map<String, Object> regionOfInterest) {
+    if (regionOfInterest == null) {
+      view.setRegionOfInterest(null);
+      return;
+    }
+
+    // Fractions of the preview's width and height, clamped to the preview.
+    float left = clamp(getFloat(regionOfInterest, "x", 0));
+    float top = clamp(getFloat(regionOfInterest, "y", 0));
+    float right = clamp(left + getFloat(regionOfInterest, "width", 1));
+    float bottom = clamp(top + getFloat(regionOfInterest, "height", 1));
+
+    view.setRegionOfInterest(right > left && bottom > top ? new RectF(left, top, right, bottom) : null);
+  }
+
+  private static float getFloat(Map<String, Object> map, String key, float defaultValue) {
+    Object value = map.get(key);
+    return value instanceof Number ? ((Number) value).floatValue() : defaultValue;
+  }
+
+  private static float clamp(float value) {
+    return Math.max(0, Math.min(1, value));
+  }
 }
@@ -1,6 +1,7 @@
 package expo.modules.barcodescanner.scanners;
 
 import android.content.Context;
+import android.graphics.Rect;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -8,7 +9,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import expo.modules.barcodescanner.utils.FrameFactory;
+
 import org.unimodules.interfaces.barcodescanner.BarCodeScanner;
+import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerSettings;
 
 public abstract class ExpoBarCodeScanner implements BarCodeScanner {
@@ -16,10 +20,23 @@ public abstract class ExpoBarCodeScanner implements BarCodeScanner {
   protected Context mContext;
   protected List<Integer> mBarCodeTypes;
 
+  // Buffer the scanned region is copied to, reused between frames.
+  private byte[] mRegionData;
+
   ExpoBarCodeScanner(Context context) {
     mContext = context;
   }
 
+  /**
+   * Scans only a region of NV21 image. Corner points and dimensions of the result refer to the region.
+   * Region edges have to be even numbers, as the chroma plane of NV21 has half of the image's resolution.
+   * By default the region is copied out of the image, subclasses may override it to scan the region in place.
+   */
+  public BarCodeScannerResult scan(byte[] data, int width, int height, int rotation, Rect region) {
+    mRegionData = FrameFactory.copyRegion(data, width, height, region, mRegionData);
+    return scan(mRegionData, region.width(), region.height(), rotation);
+  }
+
   boolean areNewAndOldBarCodeTypesEqual(List<Integer> newBarCodeTypes) {
     if (mBarCodeTypes == null) {
       return false;
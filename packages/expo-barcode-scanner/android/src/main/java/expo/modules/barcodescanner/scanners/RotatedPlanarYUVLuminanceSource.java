@@ -0,0 +1,89 @@
+package expo.modules.barcodescanner.scanners;
+
+import android.graphics.Rect;
+
+import com.google.zxing.LuminanceSource;
+
+/**
+ * Luminance source reading a region of YUV image's luminance plane in place. The region may be rotated
+ * by 90 degrees clockwise and downscaled by an integer factor, without making a rotated or scaled copy of the image.
+ */
+class RotatedPlanarYUVLuminanceSource extends LuminanceSource {
+  private final byte[] mYuvData;
+  private final int mDataWidth;
+  private final Rect mRegion;
+  private final boolean mRotated;
+  private final int mScale;
+  private final byte[] mMatrix;
+
+  /**
+   * @param matrix buffer of `getWidth() * getHeight()` bytes the matrix is written to, or null to allocate a new one.
+   */
+  RotatedPlanarYUVLuminanceSource(byte[] yuvData, int dataWidth, Rect region, boolean rotated, int scale, byte[] matrix) {
+    super(getSourceWidth(region, rotated, scale), getSourceHeight(region, rotated, scale));
+    mYuvData = yuvData;
+    mDataWidth = dataWidth;
+    mRegion = region;
+    mRotated = rotated;
+    mScale = scale;
+    mMatrix = matrix != null && matrix.length == getWidth() * getHeight() ? matrix : null;
+  }
+
+  static int getSourceWidth(Rect region, boolean rotated, int scale) {
+    return (rotated ? region.height() : region.width()) / scale;
+  }
+
+  static int getSourceHeight(Rect region, boolean rotated, int scale) {
+    return (rotated ? region.width() : region.height()) / scale;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    readRow(y, row, 0);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+    byte[] matrix = mMatrix != null ? mMatrix : new byte[width * height];
+
+    for (int y = 0; y < height; y++) {
+      readRow(y, matrix, y * width);
+    }
+    return matrix;
+  }
+
+  private void readRow(int y, byte[] output, int offset) {
+    int width = getWidth();
+
+    if (!mRotated) {
+      // Row of the source is a row of the image.
+      int inputOffset = (mRegion.top + y * mScale) * mDataWidth + mRegion.left;
+
+      if (mScale == 1) {
+        System.arraycopy(mYuvData, inputOffset, output, offset, width);
+      } else {
+        for (int x = 0; x < width; x++) {
+          output[offset + x] = mYuvData[inputOffset + x * mScale];
+        }
+      }
+    } else {
+      // Row of the source is a column of the image, read from its bottom to the top.
+      int inputOffset = mRegion.top * mDataWidth + mRegion.left + y * mScale;
+      int bottomRow = mRegion.height() - 1;
+
+      for (int x = 0; x < width; x++) {
+        output[offset + x] = mYuvData[inputOffset + (bottomRow - x * mScale) * mDataWidth];
+      }
+    }
+  }
+}
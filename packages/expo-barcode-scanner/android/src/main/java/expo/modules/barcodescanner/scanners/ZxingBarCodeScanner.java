@@ -2,6 +2,7 @@ package expo.modules.barcodescanner.scanners;
 
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 import android.graphics.Point;
 
 import com.google.android.gms.vision.barcode.Barcode;
@@ -11,7 +12,6 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.MultiFormatReader;
 import com.google.zxing.NotFoundException;
-import com.google.zxing.PlanarYUVLuminanceSource;
 import com.google.zxing.RGBLuminanceSource;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.HybridBinarizer;
@@ -29,9 +29,16 @@ import org.unimodules.interfaces.barcodescanner.BarCodeScannerResult;
 import org.unimodules.interfaces.barcodescanner.BarCodeScannerSettings;
 
 public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
+  // Images whose shorter side is at least twice this size are first scanned at half of their resolution,
+  // which is often enough to find the barcode. Only if nothing is found, they're scanned again at full resolution.
+  private static final int MIN_DOWNSCALED_SIZE = 480;
 
   private final MultiFormatReader mMultiFormatReader;
 
+  // Luminance matrices reused between frames, as long as the scanned region doesn't change its size.
+  private byte[] mMatrix;
+  private byte[] mDownscaledMatrix;
+
   public ZxingBarCodeScanner(Context context) {
     super(context);
     mMultiFormatReader = new MultiFormatReader();
@@ -49,21 +56,28 @@ public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
   }
 
   public BarCodeScannerResult scan(byte[] data, int width, int height, int rotation) {
-    // rotate for zxing if orientation is portrait
-    if (rotation == 0) {
-      byte[] rotated = new byte[data.length];
-      for (int y = 0; y < height; y++) {
-        for (int x = 0; x < width; x++) {
-          rotated[x * height + height - y - 1] = data[x + y * width];
-        }
+    return scan(data, width, height, rotation, new Rect(0, 0, width, height));
+  }
+
+  @Override
+  public BarCodeScannerResult scan(byte[] data, int width, int height, int rotation, Rect region) {
+    // rotate for zxing if orientation is portrait, the luminance source reads rotated pixels in place
+    boolean rotated = rotation == 0;
+
+    if (Math.min(region.width(), region.height()) >= 2 * MIN_DOWNSCALED_SIZE) {
+      mDownscaledMatrix = ensureMatrixSize(mDownscaledMatrix, region, rotated, 2);
+      BarCodeScannerResult result = scan(new RotatedPlanarYUVLuminanceSource(data, width, region, rotated, 2, mDownscaledMatrix));
+
+      if (result != null) {
+        // report dimensions of the full resolution image
+        result.setReferenceImageWidth(result.getReferenceImageWidth() * 2);
+        result.setReferenceImageHeight(result.getReferenceImageHeight() * 2);
+        return result;
       }
-      width = width + height;
-      height = width - height;
-      width = width - height;
-      data = rotated;
     }
 
-    return scan(generateSourceFromImageData(data, width, height));
+    mMatrix = ensureMatrixSize(mMatrix, region, rotated, 1);
+    return scan(new RotatedPlanarYUVLuminanceSource(data, width, region, rotated, 1, mMatrix));
   }
 
   private BarCodeScannerResult scan(LuminanceSource source) {
@@ -114,17 +128,9 @@ public class ZxingBarCodeScanner extends ExpoBarCodeScanner {
     return true;
   }
 
-  private LuminanceSource generateSourceFromImageData(byte[] imageData, int width, int height) {
-    return new PlanarYUVLuminanceSource(
-        imageData, // byte[] yuvData
-        width, // int dataWidth
-        height, // int dataHeight
-        0, // int left
-        0, // int top
-        width, // int width
-        height, // int height
-        false // boolean reverseHorizontal
-    );
+  private static byte[] ensureMatrixSize(byte[] matrix, Rect region, boolean rotated, int scale) {
+    int size = RotatedPlanarYUVLuminanceSource.getSourceWidth(region, rotated, scale) * RotatedPlanarYUVLuminanceSource.getSourceHeight(region, rotated, scale);
+    return matrix != null && matrix.length == size ? matrix : new byte[size];
   }
 
   private static final Map<Integer, String> VALID_BARCODE_TYPES =
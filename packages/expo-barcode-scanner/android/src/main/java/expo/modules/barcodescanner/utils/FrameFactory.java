@@ -2,6 +2,7 @@ package expo.modules.barcodescanner.utils;
 
 import android.graphics.Bitmap;
 import android.graphics.ImageFormat;
+import android.graphics.Rect;
 
 import java.nio.ByteBuffer;
 
@@ -37,4 +38,32 @@ public class FrameFactory {
     ImageDimensions dimensions = new ImageDimensions(bitmap.getWidth(), bitmap.getHeight());
     return new Frame(builder.build(), dimensions);
   }
+
+  /**
+   * Copies a region of NV21 image into the buffer, which is reallocated if it's too small, and returns the buffer.
+   * Region edges have to be even numbers, as the chroma plane of NV21 has half of the image's resolution.
+   */
+  public static byte[] copyRegion(byte[] data, int width, int height, Rect region, byte[] buffer) {
+    int regionWidth = region.width();
+    int regionHeight = region.height();
+    int regionSize = regionWidth * regionHeight * 3 / 2;
+
+    if (buffer == null || buffer.length < regionSize) {
+      buffer = new byte[regionSize];
+    }
+
+    // luminance plane
+    for (int row = 0; row < regionHeight; row++) {
+      System.arraycopy(data, (region.top + row) * width + region.left, buffer, row * regionWidth, regionWidth);
+    }
+
+    // interleaved chroma plane, with one row per two rows of the luminance plane
+    int chromaOffset = width * height;
+    int regionChromaOffset = regionWidth * regionHeight;
+    for (int row = 0; row < regionHeight / 2; row++) {
+      System.arraycopy(data, chromaOffset + (region.top / 2 + row) * width + region.left, buffer, regionChromaOffset + row * regionWidth, regionWidth);
+    }
+
+    return buffer;
+  }
 }
@@ -26,6 +26,8 @@ export type BarCodeScannedCallback = (params: BarCodeEvent) => void;
 export interface BarCodeScannerProps extends ViewProps {
   type?: 'front' | 'back' | number;
   barCodeTypes?: string[];
+  // Part of the preview to scan, in fractions of its width and height (Android only)
+  regionOfInterest?: { x: number; y: number; width: number; height: number };
   onBarCodeScanned: BarCodeScannedCallback;
 }
 
@@ -4,7 +4,6 @@ package expo.modules.filesystem;
 import android.content.Context;
 import android.content.res.Resources;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Base64;
 import android.util.Log;
@@ -16,7 +15,6 @@ import org.apache.commons.io.IOUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -43,6 +41,7 @@ import org.unimodules.interfaces.filesystem.FilePermissionModuleInterface;
 import org.unimodules.interfaces.filesystem.Permission;
 import okhttp3.Call;
 import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.Headers;
 import okhttp3.Interceptor;
 import okhttp3.JavaNetCookieJar;
@@ -64,8 +63,11 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
   private static final String EXDownloadProgressEventName = "Exponent.downloadProgress";
   private static final long MIN_EVENT_DT_MS = 100;
   private static final String HEADER_KEY = "headers";
+  private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS = 16;
+  private static final int DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST = 6;
 
   private ModuleRegistry mModuleRegistry;
+  private OkHttpClient mOkHttpClient;
 
   private final Map<String, DownloadResumable> mDownloadResumableMap = new HashMap<>();
 
@@ -470,7 +472,7 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
         promise.resolve(result);
       } else if ("file".equals(uri.getScheme())) {
         Request request = new Request.Builder().url(url).build();
-        getOkHttpClientBuilder().build().newCall(request).enqueue(new Callback() {
+        getOkHttpClient().newCall(request).enqueue(new Callback() {
           @Override
           public void onFailure(Call call, IOException e) {
             Log.e(TAG, e.getMessage());
@@ -541,8 +543,9 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
         }
       };
 
+      // newBuilder() shares the connection pool and the dispatcher queue with all other downloads
       OkHttpClient client =
-              getOkHttpClientBuilder()
+              getOkHttpClient().newBuilder()
                       .addNetworkInterceptor(new Interceptor() {
                         @Override public Response intercept(Chain chain) throws IOException {
                           Response originalResponse = chain.proceed(chain.request());
@@ -571,9 +574,31 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
       this.mDownloadResumableMap.put(uuid, downloadResumable);
 
       File file = uriToFile(fileUri);
-      DownloadResumableTaskParams params = new DownloadResumableTaskParams(options, call, file, isResume, promise);
-      DownloadResumableTask task = new DownloadResumableTask();
-      task.execute(params);
+      call.enqueue(new DownloadResumableCallback(options, file, isResume, promise));
+    } catch (Exception e) {
+      Log.e(TAG, e.getMessage());
+      promise.reject(e);
+    }
+  }
+
+  /**
+   * Limits how many downloads run at once, in total and per host. Downloads over the limits are queued.
+   */
+  @ExpoMethod
+  public void setDownloadConcurrencyLimitsAsync(Integer maxDownloads, Integer maxDownloadsPerHost, Promise promise) {
+    if (maxDownloads == null || maxDownloads < 1) {
+      promise.reject("E_INVALID_PARAMETER", "`FileSystem.setDownloadConcurrencyLimitsAsync` needs a positive `maxDownloads`.");
+      return;
+    }
+    if (maxDownloadsPerHost == null || maxDownloadsPerHost < 1) {
+      promise.reject("E_INVALID_PARAMETER", "`FileSystem.setDownloadConcurrencyLimitsAsync` needs a positive `maxDownloadsPerHost`.");
+      return;
+    }
+    try {
+      Dispatcher dispatcher = getOkHttpClient().dispatcher();
+      dispatcher.setMaxRequests(maxDownloads);
+      dispatcher.setMaxRequestsPerHost(maxDownloadsPerHost);
+      promise.resolve(null);
     } catch (Exception e) {
       Log.e(TAG, e.getMessage());
       promise.reject(e);
@@ -622,63 +647,55 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     return bytesResult;
   }
 
-  private static class DownloadResumableTaskParams {
-    Map<String, Object> options;
-    Call call;
-    File file;
-    boolean isResume;
-    Promise promise;
-
-    DownloadResumableTaskParams(Map<String, Object> options, Call call, File file, boolean isResume, Promise promise) {
-      this.options = options;
-      this.call = call;
-      this.file = file;
-      this.isResume = isResume;
-      this.promise = promise;
+  /**
+   * Writes the response straight into the file, using Okio's segments instead of copying
+   * through an intermediate buffer. Runs on the dispatcher's threads, which also limit
+   * the number of downloads running at once and queue the rest.
+   */
+  private class DownloadResumableCallback implements Callback {
+    private final Map<String, Object> mOptions;
+    private final File mFile;
+    private final boolean mIsResume;
+    private final Promise mPromise;
+
+    DownloadResumableCallback(Map<String, Object> options, File file, boolean isResume, Promise promise) {
+      mOptions = options;
+      mFile = file;
+      mIsResume = isResume;
+      mPromise = promise;
     }
-  }
 
-  private class DownloadResumableTask extends AsyncTask<DownloadResumableTaskParams, Void, Void> {
     @Override
-    protected Void doInBackground(DownloadResumableTaskParams... params) {
-      Call call = params[0].call;
-      Promise promise = params[0].promise;
-      File file = params[0].file;
-      boolean isResume = params[0].isResume;
-      Map<String, Object> options = params[0].options;
+    public void onFailure(Call call, IOException e) {
+      Log.e(TAG, e.getMessage());
+      mPromise.reject(e);
+    }
 
+    @Override
+    public void onResponse(Call call, Response response) {
+      ResponseBody responseBody = response.body();
       try {
-        Response response = call.execute();
-        ResponseBody responseBody = response.body();
-        BufferedInputStream input = new BufferedInputStream(responseBody.byteStream());
-        OutputStream output;
-
-        if (isResume) {
-          output = new FileOutputStream(file, true);
-        } else {
-          output = new FileOutputStream(file, false);
-        }
-
-        byte[] data = new byte[1024];
-        int count = 0;
-        while ((count = input.read(data)) != -1) {
-          output.write(data, 0, count);
+        BufferedSink sink = Okio.buffer(mIsResume ? Okio.appendingSink(mFile) : Okio.sink(mFile));
+        try {
+          sink.writeAll(responseBody.source());
+        } finally {
+          sink.close();
         }
 
         Bundle result = new Bundle();
-        result.putString("uri", Uri.fromFile(file).toString());
-        if (options != null && options.containsKey("md5") && (Boolean) options.get("md5")) {
-          result.putString("md5", md5(file));
+        result.putString("uri", Uri.fromFile(mFile).toString());
+        if (mOptions != null && mOptions.containsKey("md5") && (Boolean) mOptions.get("md5")) {
+          result.putString("md5", md5(mFile));
         }
         result.putInt("status", response.code());
         result.putBundle("headers", translateHeaders(response.headers()));
 
-        promise.resolve(result);
-        return null;
+        mPromise.resolve(result);
       } catch (Exception e) {
         Log.e(TAG, e.getMessage());
-        promise.reject(e);
-        return null;
+        mPromise.reject(e);
+      } finally {
+        responseBody.close();
       }
     }
   }
@@ -760,13 +777,21 @@ public class FileSystemModule extends ExportedModule implements ModuleRegistryCo
     void update(long bytesRead, long contentLength, boolean done);
   }
 
-  private OkHttpClient.Builder getOkHttpClientBuilder() {
-    CookieHandler cookieHandler = mModuleRegistry.getModule(CookieHandler.class);
-    OkHttpClient.Builder builder = new OkHttpClient.Builder();
-    if (cookieHandler != null) {
-      builder.cookieJar(new JavaNetCookieJar(cookieHandler));
+  // One client for all downloads, so that they share connections instead of each opening its own.
+  private synchronized OkHttpClient getOkHttpClient() {
+    if (mOkHttpClient == null) {
+      Dispatcher dispatcher = new Dispatcher();
+      dispatcher.setMaxRequests(DEFAULT_MAX_CONCURRENT_DOWNLOADS);
+      dispatcher.setMaxRequestsPerHost(DEFAULT_MAX_CONCURRENT_DOWNLOADS_PER_HOST);
+
+      CookieHandler cookieHandler = mModuleRegistry.getModule(CookieHandler.class);
+      OkHttpClient.Builder builder = new OkHttpClient.Builder().dispatcher(dispatcher);
+      if (cookieHandler != null) {
+        builder.cookieJar(new JavaNetCookieJar(cookieHandler));
+      }
+      mOkHttpClient = builder.build();
     }
-    return builder;
+    return mOkHttpClient;
   }
 
   private String md5(File file) throws IOException {
@@ -132,6 +132,19 @@ export async function downloadAsync(
   return await ExponentFileSystem.downloadAsync(uri, fileUri, options);
 }
 
+export async function setDownloadConcurrencyLimitsAsync(
+  maxDownloads: number,
+  maxDownloadsPerHost: number
+): Promise<void> {
+  if (!ExponentFileSystem.setDownloadConcurrencyLimitsAsync) {
+    throw new UnavailabilityError('expo-file-system', 'setDownloadConcurrencyLimitsAsync');
+  }
+  return await ExponentFileSystem.setDownloadConcurrencyLimitsAsync(
+    maxDownloads,
+    maxDownloadsPerHost
+  );
+}
+
 export function createDownloadResumable(
   uri: string,
   fileUri: string,
@@ -85,6 +85,7 @@ export interface ExponentFileSystemModule {
   readonly downloadAsync?: PlatformMethod;
   readonly downloadResumableStartAsync?: PlatformMethod;
   readonly downloadResumablePauseAsync?: PlatformMethod;
+  readonly setDownloadConcurrencyLimitsAsync?: PlatformMethod;
 
   startObserving?: () => void;
   stopObserving?: () => void;
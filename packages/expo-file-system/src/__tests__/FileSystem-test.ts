@@ -90,4 +90,10 @@ describe('FileSystem', () => {
       expect(downloadPauseState).toMatchObject(fakeObject);
     });
   });
+
+  it(`sets download concurrency limits`, async () => {
+    await FileSystem.setDownloadConcurrencyLimitsAsync(4, 2);
+
+    expect(ExponentFileSystem.setDownloadConcurrencyLimitsAsync).toHaveBeenCalledWith(4, 2);
+  });
 });
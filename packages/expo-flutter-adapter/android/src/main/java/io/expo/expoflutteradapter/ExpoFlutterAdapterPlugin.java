@@ -253,6 +253,11 @@ class ExpoFlutterAdapterModule implements
     public void emit(final int viewId, final Event event) {
     }
 
+    @Override
+    public void emitCoalesced(String eventName, String coalescingKey, Bundle eventBody) {
+        emit(eventName, eventBody);
+    }
+
     // Provide `PermissionsManager`
 
     private PermissionsListener mPermissionsListener;
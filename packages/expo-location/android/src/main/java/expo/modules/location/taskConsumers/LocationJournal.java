@@ -0,0 +1,245 @@
+package expo.modules.location.taskConsumers;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.location.Location;
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of locations received by location tasks. Locations are kept on disk until the task
+ * acknowledges them, so they survive the app process being killed before the task could be executed.
+ *
+ * Each task has a delivery cursor - the id of the last location acknowledged by the task. Locations behind
+ * the cursor are not deleted right away, they are removed in bulk once enough of them pile up.
+ */
+class LocationJournal extends SQLiteOpenHelper {
+  private static final String DATABASE_NAME = "ExpoLocationJournal.db";
+  private static final int DATABASE_VERSION = 1;
+
+  // How many acknowledged locations of a single task are kept before they get deleted.
+  private static final int COMPACTION_THRESHOLD = 500;
+
+  private static final String LOCATIONS_TABLE = "locations";
+  private static final String CURSORS_TABLE = "cursors";
+
+  private static final String INSERT_LOCATION_SQL = "INSERT INTO " + LOCATIONS_TABLE
+      + " (app_id, task_name, timestamp, latitude, longitude, altitude, accuracy, heading, speed, mocked)"
+      + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String SELECT_LOCATIONS_SQL = "SELECT id, timestamp, latitude, longitude, altitude, accuracy, heading, speed, mocked"
+      + " FROM " + LOCATIONS_TABLE
+      + " WHERE app_id = ? AND task_name = ? AND id > ? ORDER BY id LIMIT ?";
+
+  private static LocationJournal sInstance;
+
+  static synchronized LocationJournal getInstance(Context context) {
+    if (sInstance == null) {
+      sInstance = new LocationJournal(context.getApplicationContext());
+    }
+    return sInstance;
+  }
+
+  private LocationJournal(Context context) {
+    super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    setWriteAheadLoggingEnabled(true);
+  }
+
+  //region SQLiteOpenHelper
+
+  @Override
+  public void onCreate(SQLiteDatabase db) {
+    db.execSQL("CREATE TABLE " + LOCATIONS_TABLE + " ("
+        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+        + "app_id TEXT NOT NULL, "
+        + "task_name TEXT NOT NULL, "
+        + "timestamp INTEGER NOT NULL, "
+        + "latitude REAL NOT NULL, "
+        + "longitude REAL NOT NULL, "
+        + "altitude REAL NOT NULL, "
+        + "accuracy REAL NOT NULL, "
+        + "heading REAL NOT NULL, "
+        + "speed REAL NOT NULL, "
+        + "mocked INTEGER NOT NULL)");
+    db.execSQL("CREATE INDEX locations_task_index ON " + LOCATIONS_TABLE + " (app_id, task_name, id)");
+    db.execSQL("CREATE TABLE " + CURSORS_TABLE + " ("
+        + "app_id TEXT NOT NULL, "
+        + "task_name TEXT NOT NULL, "
+        + "delivered_id INTEGER NOT NULL, "
+        + "PRIMARY KEY (app_id, task_name))");
+  }
+
+  @Override
+  public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    // There is only one version of the schema so far.
+  }
+
+  //endregion
+  //region journal
+
+  /**
+   * Appends locations at the end of the task's journal, in a single transaction.
+   */
+  void append(String appId, String taskName, List<Location> locations) {
+    if (locations.isEmpty()) {
+      return;
+    }
+
+    SQLiteDatabase db = getWritableDatabase();
+    SQLiteStatement statement = db.compileStatement(INSERT_LOCATION_SQL);
+
+    db.beginTransaction();
+    try {
+      for (Location location : locations) {
+        statement.bindString(1, appId);
+        statement.bindString(2, taskName);
+        statement.bindLong(3, location.getTime());
+        statement.bindDouble(4, location.getLatitude());
+        statement.bindDouble(5, location.getLongitude());
+        statement.bindDouble(6, location.getAltitude());
+        statement.bindDouble(7, location.getAccuracy());
+        statement.bindDouble(8, location.getBearing());
+        statement.bindDouble(9, location.getSpeed());
+        statement.bindLong(10, location.isFromMockProvider() ? 1 : 0);
+        statement.executeInsert();
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+      statement.close();
+    }
+  }
+
+  /**
+   * Returns up to `limit` oldest locations which haven't been acknowledged by the task yet,
+   * or `null` if there are no such locations.
+   */
+  Batch readBatch(String appId, String taskName, int limit) {
+    SQLiteDatabase db = getReadableDatabase();
+    long deliveredId = getDeliveredId(db, appId, taskName);
+    Cursor cursor = db.rawQuery(SELECT_LOCATIONS_SQL, new String[]{
+        appId,
+        taskName,
+        String.valueOf(deliveredId),
+        String.valueOf(limit)
+    });
+
+    try {
+      if (cursor.getCount() == 0) {
+        return null;
+      }
+
+      ArrayList<Bundle> locations = new ArrayList<>(cursor.getCount());
+      long lastId = deliveredId;
+
+      while (cursor.moveToNext()) {
+        Bundle location = new Bundle();
+        Bundle coords = new Bundle();
+
+        coords.putDouble("latitude", cursor.getDouble(2));
+        coords.putDouble("longitude", cursor.getDouble(3));
+        coords.putDouble("altitude", cursor.getDouble(4));
+        coords.putDouble("accuracy", cursor.getDouble(5));
+        coords.putDouble("heading", cursor.getDouble(6));
+        coords.putDouble("speed", cursor.getDouble(7));
+
+        location.putBundle("coords", coords);
+        location.putBoolean("mocked", cursor.getInt(8) != 0);
+        location.putDouble("timestamp", cursor.getLong(1));
+
+        locations.add(location);
+        lastId = cursor.getLong(0);
+      }
+      return new Batch(locations, lastId);
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Moves the task's cursor past the locations of the batch. Acknowledged locations are deleted
+   * once there are more than {@link #COMPACTION_THRESHOLD} of them.
+   */
+  void acknowledge(String appId, String taskName, Batch batch) {
+    SQLiteDatabase db = getWritableDatabase();
+    String[] taskArgs = new String[]{ appId, taskName };
+    ContentValues values = new ContentValues();
+
+    values.put("app_id", appId);
+    values.put("task_name", taskName);
+    values.put("delivered_id", batch.lastId);
+
+    db.beginTransaction();
+    try {
+      db.insertWithOnConflict(CURSORS_TABLE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+      long acknowledgedCount = DatabaseUtils.queryNumEntries(db, LOCATIONS_TABLE,
+          "app_id = ? AND task_name = ? AND id <= " + batch.lastId, taskArgs);
+
+      if (acknowledgedCount > COMPACTION_THRESHOLD) {
+        db.delete(LOCATIONS_TABLE, "app_id = ? AND task_name = ? AND id <= " + batch.lastId, taskArgs);
+      }
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  boolean hasPendingLocations(String appId, String taskName) {
+    SQLiteDatabase db = getReadableDatabase();
+    long deliveredId = getDeliveredId(db, appId, taskName);
+
+    return DatabaseUtils.queryNumEntries(db, LOCATIONS_TABLE,
+        "app_id = ? AND task_name = ? AND id > " + deliveredId, new String[]{ appId, taskName }) > 0;
+  }
+
+  /**
+   * Removes all locations of the task, including the ones that haven't been delivered yet.
+   */
+  void clear(String appId, String taskName) {
+    SQLiteDatabase db = getWritableDatabase();
+    String[] taskArgs = new String[]{ appId, taskName };
+
+    db.beginTransaction();
+    try {
+      db.delete(LOCATIONS_TABLE, "app_id = ? AND task_name = ?", taskArgs);
+      db.delete(CURSORS_TABLE, "app_id = ? AND task_name = ?", taskArgs);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+  }
+
+  //endregion
+  //region private
+
+  private static long getDeliveredId(SQLiteDatabase db, String appId, String taskName) {
+    Cursor cursor = db.query(CURSORS_TABLE, new String[]{ "delivered_id" }, "app_id = ? AND task_name = ?",
+        new String[]{ appId, taskName }, null, null, null);
+
+    try {
+      return cursor.moveToFirst() ? cursor.getLong(0) : 0;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  //endregion
+
+  static class Batch {
+    final ArrayList<Bundle> locations;
+    final long lastId;
+
+    private Batch(ArrayList<Bundle> locations, long lastId) {
+      this.locations = locations;
+      this.lastId = lastId;
+    }
+  }
+}
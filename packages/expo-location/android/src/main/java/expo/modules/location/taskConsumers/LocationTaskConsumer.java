@@ -44,6 +44,8 @@ import expo.modules.location.services.LocationTaskService;
 public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerInterface, LifecycleEventListener {
   private static final String TAG = "LocationTaskConsumer";
   private static final String FOREGROUND_SERVICE_KEY = "foregroundService";
+  private static final String BATCH_SIZE_KEY = "deferredUpdatesBatchSize";
+  private static final int DEFAULT_BATCH_SIZE = 1000;
   private static long sLastTimestamp = 0;
 
   private TaskInterface mTask;
@@ -52,8 +54,10 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   private LocationRequest mLocationRequest;
   private FusedLocationProviderClient mLocationClient;
   private Location mLastReportedLocation;
+  private Location mOldestDeferredLocation;
+  private Location mNewestDeferredLocation;
   private double mDeferredDistance = 0.0;
-  private List<Location> mDeferredLocations = new ArrayList<>();
+  private volatile boolean mIsDeliveringLocations = false;
   private boolean mIsHostPaused = true;
 
   public LocationTaskConsumer(Context context, TaskManagerUtilsInterface taskManagerUtils) {
@@ -71,12 +75,20 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     mTask = task;
     startLocationUpdates();
     maybeStartForegroundService();
+
+    // Deliver locations that were journaled, but not acknowledged by the task before the app was killed.
+    if (getJournal().hasPendingLocations(mTask.getAppId(), mTask.getName())) {
+      scheduleDelivery();
+    }
   }
 
   @Override
   public void didUnregister() {
     stopLocationUpdates();
     stopForegroundService();
+    if (mTask != null) {
+      getJournal().clear(mTask.getAppId(), mTask.getName());
+    }
     mTask = null;
     mPendingIntent = null;
     mLocationRequest = null;
@@ -130,6 +142,7 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
 
   @Override
   public boolean didExecuteJob(final JobService jobService, final JobParameters params) {
+    // Locations are read from the journal, but jobs scheduled before it was introduced still carry them in extras.
     PersistableBundle data = params.getExtras().getPersistableBundle("data");
     int length = data != null ? data.getInt("length", 0) : 0;
     ArrayList<Bundle> locationBundles = new ArrayList<>();
@@ -151,7 +164,7 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     executeTaskWithLocationBundles(locationBundles, new TaskExecutionCallback() {
       @Override
       public void onFinished(Map<String, Object> response) {
-        jobService.jobFinished(params, false);
+        deliverJournaledLocations(jobService, params);
       }
     });
 
@@ -257,57 +270,60 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
   }
 
   private void deferLocations(List<Location> locations) {
-    int size = mDeferredLocations.size();
-    Location lastLocation = size > 0 ? mDeferredLocations.get(size - 1) : mLastReportedLocation;
+    if (mTask == null) {
+      return;
+    }
+
+    List<Location> newLocations = new ArrayList<>(locations.size());
+    Location lastLocation = mNewestDeferredLocation != null ? mNewestDeferredLocation : mLastReportedLocation;
 
     for (Location location : locations) {
+      long timestamp = location.getTime();
+
+      // Some devices may broadcast the same location multiple times (mostly twice) so we're filtering out these locations,
+      // so only one location at the specific timestamp gets to the journal.
+      if (timestamp <= sLastTimestamp) {
+        continue;
+      }
+      sLastTimestamp = timestamp;
+
       if (lastLocation != null) {
         mDeferredDistance += Math.abs(location.distanceTo(lastLocation));
       }
       lastLocation = location;
+      newLocations.add(location);
     }
-    mDeferredLocations.addAll(locations);
-  }
 
-  private void maybeReportDeferredLocations() {
-    if (!shouldReportDeferredLocations()) {
-      // Don't report locations yet - continue deferring them.
+    if (newLocations.isEmpty()) {
       return;
     }
 
-    Context context = getContext().getApplicationContext();
-    PersistableBundle data = new PersistableBundle();
-    int length = 0;
+    // Locations are written to the journal right away, so they're not lost if the app gets killed while deferring them.
+    getJournal().append(mTask.getAppId(), mTask.getName(), newLocations);
 
-    for (Location location : mDeferredLocations) {
-      long timestamp = location.getTime();
-
-      // Some devices may broadcast the same location multiple times (mostly twice) so we're filtering out these locations,
-      // so only one location at the specific timestamp can schedule a job.
-      if (timestamp > sLastTimestamp) {
-        PersistableBundle bundle = LocationHelpers.locationToBundle(location, PersistableBundle.class);
-        data.putPersistableBundle(Integer.valueOf(length).toString(), bundle);
-
-        sLastTimestamp = timestamp;
-        ++length;
-      }
+    if (mOldestDeferredLocation == null) {
+      mOldestDeferredLocation = newLocations.get(0);
     }
+    mNewestDeferredLocation = lastLocation;
+  }
 
-    data.putInt("length", length);
+  private void maybeReportDeferredLocations() {
+    if (!shouldReportDeferredLocations()) {
+      // Don't report locations yet - continue deferring them.
+      return;
+    }
 
-    if (length > 0) {
-      // Save last reported location, reset the distance and clear a list of locations.
-      mLastReportedLocation = mDeferredLocations.get(mDeferredLocations.size() - 1);
-      mDeferredDistance = 0.0;
-      mDeferredLocations.clear();
+    // Save last reported location and reset the deferred ones.
+    mLastReportedLocation = mNewestDeferredLocation;
+    mOldestDeferredLocation = null;
+    mNewestDeferredLocation = null;
+    mDeferredDistance = 0.0;
 
-      // Schedule new job.
-      getTaskManagerUtils().scheduleJob(context, mTask, data);
-    }
+    scheduleDelivery();
   }
 
   private boolean shouldReportDeferredLocations() {
-    if (mDeferredLocations.size() == 0) {
+    if (mNewestDeferredLocation == null) {
       return false;
     }
     if (!mIsHostPaused) {
@@ -315,8 +331,8 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
       return true;
     }
 
-    Location oldestLocation = mLastReportedLocation != null ? mLastReportedLocation : mDeferredLocations.get(0);
-    Location newestLocation = mDeferredLocations.get(mDeferredLocations.size() - 1);
+    Location oldestLocation = mLastReportedLocation != null ? mLastReportedLocation : mOldestDeferredLocation;
+    Location newestLocation = mNewestDeferredLocation;
     Arguments options = new MapHelper(mTask.getOptions());
     double distance = options.getDouble("deferredUpdatesDistance");
     long interval = options.getLong("deferredUpdatesInterval");
@@ -324,6 +340,54 @@ public class LocationTaskConsumer extends TaskConsumer implements TaskConsumerIn
     return newestLocation.getTime() - oldestLocation.getTime() >= interval && mDeferredDistance >= distance;
   }
 
+  private void scheduleDelivery() {
+    // The job doesn't carry any locations, it delivers whatever is in the journal at the time it runs.
+    Context context = getContext().getApplicationContext();
+    getTaskManagerUtils().scheduleJob(context, mTask, new PersistableBundle());
+  }
+
+  /**
+   * Executes the task with batches of journaled locations until all of them are acknowledged.
+   * A batch is acknowledged once the task finishes, so locations of a batch interrupted by the app
+   * being killed are delivered again by the next job.
+   */
+  private void deliverJournaledLocations(final JobService jobService, final JobParameters params) {
+    // Another job is already delivering locations and it will deliver the new ones as well.
+    if (mTask == null || mIsDeliveringLocations) {
+      jobService.jobFinished(params, false);
+      return;
+    }
+
+    final String appId = mTask.getAppId();
+    final String taskName = mTask.getName();
+    final LocationJournal.Batch batch = getJournal().readBatch(appId, taskName, getBatchSize());
+
+    if (batch == null) {
+      jobService.jobFinished(params, false);
+      return;
+    }
+
+    mIsDeliveringLocations = true;
+
+    executeTaskWithLocationBundles(batch.locations, new TaskExecutionCallback() {
+      @Override
+      public void onFinished(Map<String, Object> response) {
+        getJournal().acknowledge(appId, taskName, batch);
+        mIsDeliveringLocations = false;
+        deliverJournaledLocations(jobService, params);
+      }
+    });
+  }
+
+  private int getBatchSize() {
+    Arguments options = new MapHelper(mTask.getOptions());
+    return Math.max(1, options.getInt(BATCH_SIZE_KEY, DEFAULT_BATCH_SIZE));
+  }
+
+  private LocationJournal getJournal() {
+    return LocationJournal.getInstance(getContext());
+  }
+
   private PendingIntent preparePendingIntent() {
     return getTaskManagerUtils().createTaskIntent(getContext(), mTask);
   }
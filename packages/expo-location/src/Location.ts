@@ -62,6 +62,7 @@ interface LocationTaskOptions {
   showsBackgroundLocationIndicator?: boolean; // iOS only
   deferredUpdatesDistance?: number;
   deferredUpdatesTimeout?: number;
+  deferredUpdatesBatchSize?: number; // Android only
   foregroundService?: {
     notificationTitle: string;
     notificationBody: string;
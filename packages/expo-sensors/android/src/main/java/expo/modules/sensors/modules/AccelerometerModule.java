@@ -14,6 +14,8 @@ import org.unimodules.interfaces.sensors.SensorService;
 import org.unimodules.interfaces.sensors.services.AccelerometerService;
 
 public class AccelerometerModule extends BaseSensorModule {
+  private static final float GRAVITY_EARTH_INVERSE = 1 / SensorManager.GRAVITY_EARTH;
+
   public AccelerometerModule(Context reactContext) {
     super(reactContext);
   }
@@ -33,12 +35,22 @@ public class AccelerometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(AccelerometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
-    Bundle map = new Bundle();
-    map.putDouble("x", sensorEvent.values[0] / SensorManager.GRAVITY_EARTH);
-    map.putDouble("y", sensorEvent.values[1] / SensorManager.GRAVITY_EARTH);
-    map.putDouble("z", sensorEvent.values[2]/  SensorManager.GRAVITY_EARTH);
-    return map;
+  protected void eventToMap(SensorEvent sensorEvent, Bundle map) {
+    map.putDouble("x", sensorEvent.values[0] * GRAVITY_EARTH_INVERSE);
+    map.putDouble("y", sensorEvent.values[1] * GRAVITY_EARTH_INVERSE);
+    map.putDouble("z", sensorEvent.values[2] * GRAVITY_EARTH_INVERSE);
+  }
+
+  @Override
+  protected int getBatchedSampleSize() {
+    return 3;
+  }
+
+  @Override
+  protected void writeBatchedSample(SensorEvent sensorEvent, float[] values, int offset) {
+    values[offset] = sensorEvent.values[0] * GRAVITY_EARTH_INVERSE;
+    values[offset + 1] = sensorEvent.values[1] * GRAVITY_EARTH_INVERSE;
+    values[offset + 2] = sensorEvent.values[2] * GRAVITY_EARTH_INVERSE;
   }
 
   @ExpoMethod
@@ -59,6 +71,18 @@ public class AccelerometerModule extends BaseSensorModule {
     promise.resolve(null);
   }
 
+  @ExpoMethod
+  public void setBatchSize(int batchSize, Promise promise) {
+    super.setBatchSize(batchSize);
+    promise.resolve(null);
+  }
+
+  @ExpoMethod
+  public void setCoalescingEnabled(boolean enabled, Promise promise) {
+    super.setCoalescingEnabled(enabled);
+    promise.resolve(null);
+  }
+
   @ExpoMethod
   public void isAvailableAsync(Promise promise) {
     SensorManager mSensorManager = (SensorManager) getContext().getSystemService(Context.SENSOR_SERVICE);
@@ -33,11 +33,9 @@ public class BarometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(BarometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
-    Bundle map = new Bundle();
+  protected void eventToMap(SensorEvent sensorEvent, Bundle map) {
     // TODO: Bacon: Can we get relative altitude?
     map.putDouble("pressure", sensorEvent.values[0]);
-    return map;
   }
 
   @ExpoMethod
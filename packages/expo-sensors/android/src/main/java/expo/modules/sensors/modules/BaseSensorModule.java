@@ -17,13 +17,46 @@ import org.unimodules.interfaces.sensors.SensorService;
 import org.unimodules.interfaces.sensors.SensorServiceSubscription;
 
 public abstract class BaseSensorModule extends ExportedModule implements SensorEventListener2, ModuleRegistryConsumer, LifecycleEventListener {
+  private static final String BATCH_EVENT_NAME_SUFFIX = "Batch";
+  private static final String BATCH_VALUES_KEY = "values";
+  private static final String BATCH_TIMESTAMPS_KEY = "timestamps";
+
   private SensorServiceSubscription mSensorServiceSubscription;
   private ModuleRegistry mModuleRegistry;
   private boolean mIsObserving = false;
+  private volatile boolean mCoalescingEnabled = false;
+
+  // Event emitters convert or copy event bodies right away, so the same bundles can be reused for all events.
+  private final Bundle mEventBody = new Bundle();
+  private final Bundle mBatchEventBody = new Bundle();
+
+  private int mBatchSize = 1;
+  private int mBatchedSamplesCount = 0;
+  private float[] mBatchValues;
+  private double[] mBatchTimestamps;
 
   protected abstract String getEventName();
   protected abstract SensorService getSensorService();
-  protected abstract Bundle eventToMap(SensorEvent sensorEvent);
+
+  /**
+   * Fills the event body with the sensor event's measurements. The body is reused across events,
+   * so every key has to be written each time.
+   */
+  protected abstract void eventToMap(SensorEvent sensorEvent, Bundle map);
+
+  /**
+   * Returns the number of values written by {@link #writeBatchedSample}, 0 if the sensor doesn't support batching.
+   */
+  protected int getBatchedSampleSize() {
+    return 0;
+  }
+
+  /**
+   * Writes the sensor event's measurements to the batch at the given offset.
+   */
+  protected void writeBatchedSample(SensorEvent sensorEvent, float[] values, int offset) {
+    System.arraycopy(sensorEvent.values, 0, values, offset, getBatchedSampleSize());
+  }
 
   BaseSensorModule(Context context) {
     super(context);
@@ -51,10 +84,22 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
   @Override
   public void onSensorChanged(SensorEvent sensorEvent) {
     EventEmitter eventEmitter = mModuleRegistry.getModule(EventEmitter.class);
-    if (eventEmitter != null) {
-      eventEmitter.emit(getEventName(), eventToMap(sensorEvent));
-    } else {
+    if (eventEmitter == null) {
       Log.e("E_SENSOR_MODULE", "Could not emit " + getEventName() + " event, no event emitter present.");
+      return;
+    }
+
+    synchronized (this) {
+      if (mBatchSize > 1) {
+        addToBatch(eventEmitter, sensorEvent);
+        return;
+      }
+    }
+    eventToMap(sensorEvent, mEventBody);
+    if (mCoalescingEnabled) {
+      eventEmitter.emitCoalesced(getEventName(), null, mEventBody);
+    } else {
+      eventEmitter.emit(getEventName(), mEventBody);
     }
   }
 
@@ -72,6 +117,50 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
     getSensorKernelServiceSubscription().setUpdateInterval(updateInterval);
   }
 
+  /**
+   * Makes the module emit at most one sample per frame, the latest one. Samples coming in faster are dropped
+   * before crossing the bridge, so update intervals shorter than a frame have no effect then.
+   * Batches are always emitted as they fill up.
+   */
+  public void setCoalescingEnabled(boolean enabled) {
+    mCoalescingEnabled = enabled;
+  }
+
+  /**
+   * Makes the module emit batches of batchSize samples instead of single samples. Batches are emitted
+   * as events named like the regular ones with a "Batch" suffix, with all samples' values packed
+   * into a single "values" array and their timestamps, in milliseconds, in a "timestamps" array.
+   */
+  public synchronized void setBatchSize(int batchSize) {
+    int sampleSize = getBatchedSampleSize();
+    mBatchSize = sampleSize > 0 ? Math.max(1, batchSize) : 1;
+    mBatchedSamplesCount = 0;
+    if (mBatchSize > 1) {
+      mBatchValues = new float[mBatchSize * sampleSize];
+      mBatchTimestamps = new double[mBatchSize];
+    } else {
+      mBatchValues = null;
+      mBatchTimestamps = null;
+    }
+  }
+
+  private void addToBatch(EventEmitter eventEmitter, SensorEvent sensorEvent) {
+    writeBatchedSample(sensorEvent, mBatchValues, mBatchedSamplesCount * getBatchedSampleSize());
+    mBatchTimestamps[mBatchedSamplesCount] = sensorEvent.timestamp / 1e6;
+    mBatchedSamplesCount++;
+
+    if (mBatchedSamplesCount == mBatchSize) {
+      mBatchEventBody.putFloatArray(BATCH_VALUES_KEY, mBatchValues);
+      mBatchEventBody.putDoubleArray(BATCH_TIMESTAMPS_KEY, mBatchTimestamps);
+      eventEmitter.emit(getEventName() + BATCH_EVENT_NAME_SUFFIX, mBatchEventBody);
+      mBatchedSamplesCount = 0;
+    }
+  }
+
+  private synchronized void discardBatch() {
+    mBatchedSamplesCount = 0;
+  }
+
   private SensorServiceSubscription getSensorKernelServiceSubscription() {
     if (mSensorServiceSubscription != null) {
       return mSensorServiceSubscription;
@@ -89,6 +178,7 @@ public abstract class BaseSensorModule extends ExportedModule implements SensorE
   public void stopObserving() {
     mIsObserving = false;
     getSensorKernelServiceSubscription().stop();
+    discardBatch();
   }
 
   @Override
@@ -33,12 +33,15 @@ public class MagnetometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(MagnetometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
-    Bundle map = new Bundle();
+  protected void eventToMap(SensorEvent sensorEvent, Bundle map) {
     map.putDouble("x", sensorEvent.values[0]);
     map.putDouble("y", sensorEvent.values[1]);
     map.putDouble("z", sensorEvent.values[2]);
-    return map;
+  }
+
+  @Override
+  protected int getBatchedSampleSize() {
+    return 3;
   }
 
   @ExpoMethod
@@ -59,6 +62,18 @@ public class MagnetometerModule extends BaseSensorModule {
     promise.resolve(null);
   }
 
+  @ExpoMethod
+  public void setBatchSize(int batchSize, Promise promise) {
+    super.setBatchSize(batchSize);
+    promise.resolve(null);
+  }
+
+  @ExpoMethod
+  public void setCoalescingEnabled(boolean enabled, Promise promise) {
+    super.setCoalescingEnabled(enabled);
+    promise.resolve(null);
+  }
+
   @ExpoMethod
   public void isAvailableAsync(Promise promise) {
     SensorManager mSensorManager = (SensorManager) getContext().getSystemService(Context.SENSOR_SERVICE);
@@ -34,13 +34,11 @@ public class PedometerModule extends BaseSensorModule {
     return getModuleRegistry().getModule(PedometerService.class);
   }
 
-  protected Bundle eventToMap(SensorEvent sensorEvent) {
+  protected void eventToMap(SensorEvent sensorEvent, Bundle map) {
     if (stepsAtTheBeginning == null) {
       stepsAtTheBeginning = (int) sensorEvent.values[0] - 1;
     }
-    Bundle map = new Bundle();
     map.putDouble("steps", sensorEvent.values[0] - stepsAtTheBeginning);
-    return map;
   }
 
   @ExpoMethod
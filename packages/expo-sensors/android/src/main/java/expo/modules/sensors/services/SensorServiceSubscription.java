@@ -39,6 +39,7 @@ public class SensorServiceSubscription implements org.unimodules.interfaces.sens
   public void setUpdateInterval(long updateInterval) {
     assertSubscriptionIsAlive();
     mUpdateInterval = updateInterval;
+    mSubscribableSensorService.onSubscriptionUpdateIntervalChanged(this);
   }
 
   public void stop() {
@@ -56,6 +56,12 @@ public abstract class SubscribableSensorService extends BaseSensorService implem
     updateObserving();
   }
 
+  void onSubscriptionUpdateIntervalChanged(SensorServiceSubscription sensorServiceSubscription) {
+    if (sensorServiceSubscription.isEnabled()) {
+      updateObserving();
+    }
+  }
+
   void removeSubscription(SensorServiceSubscription sensorServiceSubscription) {
     mSensorEventListenerLastUpdateMap.remove(sensorServiceSubscription);
   }
@@ -114,10 +120,21 @@ public abstract class SubscribableSensorService extends BaseSensorService implem
 
   // Private helpers
 
+  private long getMinUpdateInterval() {
+    long minUpdateInterval = Long.MAX_VALUE;
+    for (SensorServiceSubscription subscription : mSensorEventListenerLastUpdateMap.keySet()) {
+      if (subscription != null && subscription.isEnabled()) {
+        Long updateInterval = subscription.getUpdateInterval();
+        minUpdateInterval = Math.min(minUpdateInterval, updateInterval != null ? updateInterval : DEFAULT_UPDATE_INTERVAL);
+      }
+    }
+    return minUpdateInterval != Long.MAX_VALUE ? minUpdateInterval : DEFAULT_UPDATE_INTERVAL;
+  }
+
   private void updateObserving() {
     // Start/stop observing according to the experience state
     if (mListenersCount > 0 && getExperienceIsForegrounded()) {
-      super.startObserving();
+      super.startObserving(getSamplingPeriodUs(getMinUpdateInterval()));
     } else {
       super.stopObserving();
     }
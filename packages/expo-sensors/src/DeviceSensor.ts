@@ -4,6 +4,16 @@ type Listener<E> = (event: E) => void;
 
 type NativeSensorModule = any;
 
+/**
+ * A batch of samples, emitted once `setBatchSize` has been called with a size greater than 1.
+ * Values of all samples are packed into a single array, e.g. `[x0, y0, z0, x1, y1, z1, ...]`
+ * for three-axis sensors, and `timestamps` holds each sample's timestamp in milliseconds.
+ */
+export type SensorBatch = {
+  values: number[];
+  timestamps: number[];
+};
+
 /**
  * A base class for subscribable sensors. The events emitted by this class are measurements
  * specified by the parameter type `M`.
@@ -28,6 +38,13 @@ export default class DeviceSensor<M> {
     return subscription;
   }
 
+  addBatchListener(listener: Listener<SensorBatch>): Subscription {
+    let subscription = this._nativeEmitter.addListener(`${this._nativeEventName}Batch`, listener);
+    subscription.remove = () => this.removeSubscription(subscription);
+    this._listenerCount++;
+    return subscription;
+  }
+
   hasListeners(): boolean {
     return this._listenerCount > 0;
   }
@@ -53,6 +70,27 @@ export default class DeviceSensor<M> {
       this._nativeModule.setUpdateInterval(intervalMs);
     }
   }
+
+  setBatchSize(batchSize: number): void {
+    if (!this._nativeModule.setBatchSize) {
+      console.warn(`expo-sensors: setBatchSize() is not supported on ${Platform.OS}`);
+    } else {
+      this._nativeModule.setBatchSize(batchSize);
+    }
+  }
+
+  /**
+   * Coalesces updates, so that at most one update, the latest one, is delivered per frame.
+   * Updates requested with an interval shorter than a frame are dropped then. Android only.
+   */
+  setCoalescingEnabled(enabled: boolean): void {
+    if (!this._nativeModule.setCoalescingEnabled) {
+      console.warn(`expo-sensors: setCoalescingEnabled() is not supported on ${Platform.OS}`);
+    } else {
+      this._nativeModule.setCoalescingEnabled(enabled);
+    }
+  }
+
   async isAvailableAsync(): Promise<boolean> {
     if (!this._nativeModule.isAvailableAsync) {
       return false;
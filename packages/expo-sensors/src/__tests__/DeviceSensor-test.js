@@ -126,12 +126,22 @@ it(`doesn't fail when a subscription is removed twice`, () => {
   expect(() => sensor.removeSubscription(subscription)).not.toThrow();
 });
 
+it(`passes coalescing of updates to the native module`, () => {
+  const nativeModule = new MockNativeSensorModule();
+  const sensor = new DeviceSensor(nativeModule, 'mockDidUpdate');
+
+  sensor.setCoalescingEnabled(true);
+  expect(nativeModule.setCoalescingEnabled).toHaveBeenCalledTimes(1);
+  expect(nativeModule.setCoalescingEnabled).toHaveBeenLastCalledWith(true);
+});
+
 class MockNativeSensorModule {
   addListener = jest.fn(async () => {});
   removeListeners = jest.fn(async () => {});
   startObserving = jest.fn(async () => {});
   stopObserving = jest.fn(async () => {});
   setUpdateInterval = jest.fn(async () => {});
+  setCoalescingEnabled = jest.fn(async () => {});
 }
 
 function _countRemovedListeners(nativeModule) {
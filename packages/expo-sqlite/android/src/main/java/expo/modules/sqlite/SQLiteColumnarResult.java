@@ -0,0 +1,159 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+package expo.modules.sqlite;
+
+import android.database.Cursor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads query results column by column, so that each column can be sent over as one typed array
+ * instead of every cell being a separate boxed value.
+ *
+ * The result is [columnNames, rowsCount, columns], where each column is [type, values, nulls]:
+ * - type is "number" (values is a double[]), "string" (values is a String[]) or "mixed" (values is a list),
+ * - nulls is a boolean[] with true for rows where the value is null, or null if the column has no nulls.
+ */
+class SQLiteColumnarResult {
+  private static final String TYPE_NUMBER = "number";
+  private static final String TYPE_STRING = "string";
+  private static final String TYPE_MIXED = "mixed";
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  static List<Object> read(Cursor cursor) {
+    String[] columnNames = cursor.getColumnNames();
+    int numColumns = columnNames.length;
+    Column[] columns = new Column[numColumns];
+    for (int j = 0; j < numColumns; j++) {
+      columns[j] = new Column();
+    }
+
+    int numRows = 0;
+    while (cursor.moveToNext()) {
+      for (int j = 0; j < numColumns; j++) {
+        columns[j].read(cursor, j, numRows);
+      }
+      numRows++;
+    }
+
+    List<Object> encodedColumns = new ArrayList<>(numColumns);
+    for (Column column : columns) {
+      encodedColumns.add(column.encode(numRows));
+    }
+
+    List<Object> result = new ArrayList<>(3);
+    result.add(Arrays.asList(columnNames));
+    result.add(numRows);
+    result.add(encodedColumns);
+    return result;
+  }
+
+  private static class Column {
+    private String mType = null;
+    private double[] mNumbers;
+    private String[] mStrings;
+    private List<Object> mValues;
+    private boolean[] mNulls;
+
+    void read(Cursor cursor, int index, int row) {
+      int fieldType = cursor.getType(index);
+      if (fieldType == Cursor.FIELD_TYPE_NULL) {
+        if (mNulls == null) {
+          mNulls = new boolean[Math.max(INITIAL_CAPACITY, row + 1)];
+        }
+        mNulls = ensureCapacity(mNulls, row);
+        mNulls[row] = true;
+        if (TYPE_MIXED.equals(mType)) {
+          mValues.add(null);
+        }
+        return;
+      }
+
+      boolean isNumber = fieldType == Cursor.FIELD_TYPE_INTEGER || fieldType == Cursor.FIELD_TYPE_FLOAT;
+      if (mType == null) {
+        mType = isNumber ? TYPE_NUMBER : TYPE_STRING;
+      } else if (mType.equals(TYPE_NUMBER) != isNumber && !TYPE_MIXED.equals(mType)) {
+        // SQLite is dynamically typed, a column can hold values of different types
+        convertToMixed(row);
+      }
+
+      if (TYPE_MIXED.equals(mType)) {
+        mValues.add(isNumber ? (Object) getNumber(cursor, index, fieldType) : getString(cursor, index, fieldType));
+      } else if (isNumber) {
+        mNumbers = ensureCapacity(mNumbers, row);
+        mNumbers[row] = getNumber(cursor, index, fieldType);
+      } else {
+        mStrings = ensureCapacity(mStrings, row);
+        mStrings[row] = getString(cursor, index, fieldType);
+      }
+    }
+
+    List<Object> encode(int numRows) {
+      List<Object> column = new ArrayList<>(3);
+      if (TYPE_MIXED.equals(mType)) {
+        column.add(TYPE_MIXED);
+        column.add(mValues);
+      } else if (TYPE_STRING.equals(mType)) {
+        String[] strings = mStrings == null ? new String[numRows] : Arrays.copyOf(mStrings, numRows);
+        for (int i = 0; i < numRows; i++) {
+          if (strings[i] == null) {
+            strings[i] = "";
+          }
+        }
+        column.add(TYPE_STRING);
+        column.add(strings);
+      } else {
+        // columns with no values at all are encoded as numbers, all of them being null
+        column.add(TYPE_NUMBER);
+        column.add(mNumbers == null ? new double[numRows] : Arrays.copyOf(mNumbers, numRows));
+      }
+      column.add(mNulls == null ? null : Arrays.copyOf(mNulls, numRows));
+      return column;
+    }
+
+    private void convertToMixed(int numRowsRead) {
+      mValues = new ArrayList<>(Math.max(INITIAL_CAPACITY, numRowsRead + 1));
+      for (int i = 0; i < numRowsRead; i++) {
+        if (mNulls != null && i < mNulls.length && mNulls[i]) {
+          mValues.add(null);
+        } else if (TYPE_NUMBER.equals(mType)) {
+          mValues.add(mNumbers[i]);
+        } else {
+          mValues.add(mStrings[i]);
+        }
+      }
+      mNumbers = null;
+      mStrings = null;
+      mType = TYPE_MIXED;
+    }
+
+    private static double getNumber(Cursor cursor, int index, int fieldType) {
+      return fieldType == Cursor.FIELD_TYPE_INTEGER ? (double) cursor.getLong(index) : cursor.getDouble(index);
+    }
+
+    private static String getString(Cursor cursor, int index, int fieldType) {
+      // convert byte[] to binary string, just like row-based results do
+      return fieldType == Cursor.FIELD_TYPE_BLOB ? new String(cursor.getBlob(index)) : cursor.getString(index);
+    }
+
+    private static double[] ensureCapacity(double[] array, int index) {
+      if (array == null) {
+        return new double[Math.max(INITIAL_CAPACITY, index + 1)];
+      }
+      return index < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, index + 1));
+    }
+
+    private static String[] ensureCapacity(String[] array, int index) {
+      if (array == null) {
+        return new String[Math.max(INITIAL_CAPACITY, index + 1)];
+      }
+      return index < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, index + 1));
+    }
+
+    private static boolean[] ensureCapacity(boolean[] array, int index) {
+      return index < array.length ? array : Arrays.copyOf(array, Math.max(array.length * 2, index + 1));
+    }
+  }
+}
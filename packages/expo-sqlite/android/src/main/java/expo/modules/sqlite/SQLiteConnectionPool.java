@@ -0,0 +1,84 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+package expo.modules.sqlite;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Connections to a single database file, safe to use from multiple threads.
+ *
+ * {@link SQLiteDatabase} opened with write-ahead logging keeps one primary connection, used for writes
+ * and transactions, and a few secondary, read-only connections which serve queries run outside of transactions.
+ * This class adds a writer lock on top of it, which serializes writes (and use of the cached statements)
+ * while letting any number of readers run concurrently on secondary connections.
+ * Without write-ahead logging all queries share a single connection.
+ */
+class SQLiteConnectionPool {
+  private final SQLiteDatabase mDatabase;
+  private final SQLiteStatementCache mStatementCache;
+  private final ReentrantLock mWriterLock = new ReentrantLock(true);
+
+  private SQLiteConnectionPool(SQLiteDatabase database, int statementCacheSize) {
+    mDatabase = database;
+    mStatementCache = new SQLiteStatementCache(database, statementCacheSize);
+  }
+
+  static SQLiteConnectionPool open(String path, boolean writeAheadLogging, int statementCacheSize) {
+    int flags = SQLiteDatabase.CREATE_IF_NECESSARY;
+    if (writeAheadLogging) {
+      flags |= SQLiteDatabase.ENABLE_WRITE_AHEAD_LOGGING;
+    }
+    return new SQLiteConnectionPool(SQLiteDatabase.openDatabase(path, null, flags), statementCacheSize);
+  }
+
+  SQLiteDatabase getDatabase() {
+    return mDatabase;
+  }
+
+  /**
+   * Returns the cache of compiled statements. Must be used only while holding the writer.
+   */
+  SQLiteStatementCache getStatementCache() {
+    return mStatementCache;
+  }
+
+  /**
+   * Blocks until no other thread holds the writer. Has to be called before beginning a transaction,
+   * so that a thread holding the primary connection never waits for the writer.
+   */
+  void acquireWriter() {
+    mWriterLock.lock();
+  }
+
+  void releaseWriter() {
+    mWriterLock.unlock();
+  }
+
+  boolean isOpen() {
+    return mDatabase.isOpen();
+  }
+
+  void setWriteAheadLoggingEnabled(boolean enabled) {
+    acquireWriter();
+    try {
+      if (enabled) {
+        mDatabase.enableWriteAheadLogging();
+      } else {
+        mDatabase.disableWriteAheadLogging();
+      }
+    } finally {
+      releaseWriter();
+    }
+  }
+
+  void close() {
+    acquireWriter();
+    try {
+      mStatementCache.clear();
+      mDatabase.close();
+    } finally {
+      releaseWriter();
+    }
+  }
+}
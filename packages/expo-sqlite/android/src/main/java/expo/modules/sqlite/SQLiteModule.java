@@ -3,32 +3,59 @@ package expo.modules.sqlite;
 
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteProgram;
+import android.database.sqlite.SQLiteQuery;
 import android.database.sqlite.SQLiteStatement;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.unimodules.core.ExportedModule;
+import org.unimodules.core.ModuleRegistry;
 import org.unimodules.core.Promise;
 import org.unimodules.core.interfaces.ExpoMethod;
+import org.unimodules.core.interfaces.LifecycleEventListener;
+import org.unimodules.core.interfaces.ModuleRegistryConsumer;
+import org.unimodules.core.interfaces.services.UIManager;
 
-public class SQLiteModule extends ExportedModule {
+public class SQLiteModule extends ExportedModule implements ModuleRegistryConsumer, LifecycleEventListener {
   private static final boolean DEBUG_MODE = false;
 
   private static final String TAG = SQLiteModule.class.getSimpleName();
 
-  private static final Object[][] EMPTY_ROWS = new Object[][]{};
-  private static final String[] EMPTY_COLUMNS = new String[]{};
+  private static final List<Object> EMPTY_ROWS = Collections.emptyList();
+  private static final List<String> EMPTY_COLUMNS = Collections.emptyList();
   private static final SQLitePluginResult EMPTY_RESULT = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, null);
 
-  private static final Map<String, SQLiteDatabase> DATABASES = new HashMap<String, SQLiteDatabase>();
+  private static final int STATEMENT_CACHE_SIZE = 64;
+  private static final int DEFAULT_ROWS_CAPACITY = 16;
+  // each open cursor pins a window of its results in native memory
+  private static final int MAX_OPEN_CURSORS = 32;
+
+  // Methods run on the shared I/O queue, possibly concurrently, so all of the state has to be thread-safe.
+  private static final Map<String, SQLiteConnectionPool> DATABASES = new ConcurrentHashMap<String, SQLiteConnectionPool>();
+  private static final Set<String> WAL_DATABASES = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private static final Map<Integer, OpenCursor> OPEN_CURSORS = new ConcurrentHashMap<Integer, OpenCursor>();
+  private static final Object DATABASES_LOCK = new Object();
+  private static final AtomicInteger NEXT_CURSOR_ID = new AtomicInteger(0);
 
   private Context mContext;
+  private ModuleRegistry mModuleRegistry;
+  // ids of cursors opened by this module, closed together with the app that has opened them
+  private final Set<Integer> mCursorIds = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
   public SQLiteModule(Context scopedContext) {
     super(scopedContext);
@@ -40,33 +67,94 @@ public class SQLiteModule extends ExportedModule {
     return "ExponentSQLite";
   }
 
+  @Override
+  public void setModuleRegistry(ModuleRegistry moduleRegistry) {
+    if (mModuleRegistry != null && mModuleRegistry.getModule(UIManager.class) != null) {
+      mModuleRegistry.getModule(UIManager.class).unregisterLifecycleEventListener(this);
+    }
+
+    mModuleRegistry = moduleRegistry;
+
+    if (mModuleRegistry != null && mModuleRegistry.getModule(UIManager.class) != null) {
+      mModuleRegistry.getModule(UIManager.class).registerLifecycleEventListener(this);
+    }
+  }
+
+  @Override
+  public void onHostResume() {
+    // noop
+  }
+
+  @Override
+  public void onHostPause() {
+    // noop
+  }
+
+  @Override
+  public void onHostDestroy() {
+    for (Integer cursorId : mCursorIds) {
+      OpenCursor openCursor = OPEN_CURSORS.remove(cursorId);
+      if (openCursor != null) {
+        openCursor.close();
+      }
+    }
+    mCursorIds.clear();
+  }
+
+  @Override
+  public MethodQueue getDefaultMethodQueue() {
+    // Queries would block other modules' calls, and concurrent reads are fine with write-ahead logging.
+    return MethodQueue.IO;
+  }
+
   @ExpoMethod
   public void exec(String dbName, ArrayList<ArrayList<Object>> queries, Boolean readOnly, final Promise promise) {
     try {
-      int numQueries = queries.size();
-      SQLitePluginResult[] results = new SQLitePluginResult[numQueries];
-      SQLiteDatabase db = getDatabase(dbName);
-
-      for (int i = 0; i < numQueries; i++) {
-        ArrayList<Object> sqlQuery = queries.get(i);
-        String sql = (String) sqlQuery.get(0);
-        String[] bindArgs = convertParamsToStringArray(sqlQuery.get(1));
+      SQLiteConnectionPool pool = getConnectionPool(dbName);
+      SQLitePluginResult[] results;
+      // batches of selects don't need the writer and can run alongside other readers
+      boolean needsWriter = !readOnly && containsWrites(queries);
+      if (needsWriter) {
+        pool.acquireWriter();
+      }
+      try {
+        results = executeQueries(pool.getDatabase(), pool.getStatementCache(), queries, readOnly, false);
+      } finally {
+        if (needsWriter) {
+          pool.releaseWriter();
+        }
+      }
+      List<Object> data = pluginResultsToPrimitiveData(results);
+      promise.resolve(data);
+    } catch (Exception e) {
+      promise.reject("SQLiteError", e);
+    }
+  }
+
+  /**
+   * Works like {@link #exec}, but runs all of the queries in a single transaction, which saves
+   * a journal sync per every write. If any of the queries fails, the following ones are not executed
+   * and the whole transaction is rolled back.
+   */
+  @ExpoMethod
+  public void execInTransaction(String dbName, ArrayList<ArrayList<Object>> queries, Boolean readOnly, final Promise promise) {
+    try {
+      SQLiteConnectionPool pool = getConnectionPool(dbName);
+      SQLiteDatabase db = pool.getDatabase();
+      SQLitePluginResult[] results;
+      pool.acquireWriter();
+      try {
+        db.beginTransactionNonExclusive();
         try {
-          if (isSelect(sql)) {
-            results[i] = doSelectInBackgroundAndPossiblyThrow(sql, bindArgs, db);
-          } else { // update/insert/delete
-            if (readOnly) {
-              results[i] = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, new ReadOnlyException());
-            } else {
-              results[i] = doUpdateInBackgroundAndPossiblyThrow(sql, bindArgs, db);
-            }
+          results = executeQueries(db, pool.getStatementCache(), queries, readOnly, true);
+          if (!hasError(results)) {
+            db.setTransactionSuccessful();
           }
-        } catch (Throwable e) {
-          if (DEBUG_MODE) {
-            e.printStackTrace();
-          }
-          results[i] = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, e);
+        } finally {
+          db.endTransaction();
         }
+      } finally {
+        pool.releaseWriter();
       }
       List<Object> data = pluginResultsToPrimitiveData(results);
       promise.resolve(data);
@@ -75,69 +163,222 @@ public class SQLiteModule extends ExportedModule {
     }
   }
 
+  /**
+   * Enables or disables write-ahead logging for the database, so that readers are not blocked
+   * by a writer. The setting is remembered and applied also when the database gets reopened.
+   */
+  @ExpoMethod
+  public void setWriteAheadLoggingEnabled(String dbName, Boolean enabled, final Promise promise) {
+    try {
+      if (enabled) {
+        WAL_DATABASES.add(dbName);
+      } else {
+        WAL_DATABASES.remove(dbName);
+      }
+      getConnectionPool(dbName).setWriteAheadLoggingEnabled(enabled);
+      promise.resolve(null);
+    } catch (Exception e) {
+      promise.reject("SQLiteError", e);
+    }
+  }
+
+  /**
+   * Runs a select query and resolves with its results encoded column by column,
+   * see {@link SQLiteColumnarResult} for the format. Meant for queries returning many rows of numbers,
+   * which would otherwise be sent over as a boxed value per cell.
+   */
+  @ExpoMethod
+  public void queryColumnar(String dbName, String sql, ArrayList<Object> args, final Promise promise) {
+    if (!isSelect(sql)) {
+      promise.reject("SQLiteError", "Only select queries can be read in the columnar format.");
+      return;
+    }
+    Cursor cursor = null;
+    try {
+      cursor = query(getConnectionPool(dbName).getDatabase(), sql, convertParamsToBindArgs(args));
+      promise.resolve(SQLiteColumnarResult.read(cursor));
+    } catch (Exception e) {
+      promise.reject("SQLiteError", e);
+    } finally {
+      if (cursor != null) {
+        cursor.close();
+      }
+    }
+  }
+
+  /**
+   * Runs a select query and resolves with an id of a cursor over its results, which can be read
+   * in chunks with {@link #fetchCursorRows}, so that large results don't have to be materialized
+   * and sent over at once. The cursor has to be closed with {@link #closeCursor} once it's no longer needed.
+   */
+  @ExpoMethod
+  public void openCursor(String dbName, String sql, ArrayList<Object> args, final Promise promise) {
+    try {
+      if (!isSelect(sql)) {
+        promise.reject("SQLiteError", "Only select queries can be read with a cursor.");
+        return;
+      }
+      if (OPEN_CURSORS.size() >= MAX_OPEN_CURSORS) {
+        promise.reject("SQLiteError", "Too many cursors are open, close the ones that are no longer needed.");
+        return;
+      }
+      Cursor cursor = query(getConnectionPool(dbName).getDatabase(), sql, convertParamsToBindArgs(args));
+      int cursorId = NEXT_CURSOR_ID.incrementAndGet();
+      OPEN_CURSORS.put(cursorId, new OpenCursor(dbName, cursor));
+      mCursorIds.add(cursorId);
+      promise.resolve(cursorId);
+    } catch (Exception e) {
+      promise.reject("SQLiteError", e);
+    }
+  }
+
+  /**
+   * Resolves with [columnNames, rows, hasMore], where rows are at most maxRows next rows of the cursor.
+   */
+  @ExpoMethod
+  public void fetchCursorRows(Integer cursorId, Integer maxRows, final Promise promise) {
+    OpenCursor openCursor = OPEN_CURSORS.get(cursorId);
+    if (openCursor == null) {
+      promise.reject("SQLiteError", "Cursor " + cursorId + " does not exist or has already been closed.");
+      return;
+    }
+    try {
+      List<Object> data = new ArrayList<>(3);
+      // cursors are not thread-safe
+      synchronized (openCursor) {
+        Cursor cursor = openCursor.cursor;
+        List<Object> rows = new ArrayList<>(Math.min(maxRows, DEFAULT_ROWS_CAPACITY));
+        readRows(cursor, maxRows, rows);
+
+        // SQLiteCursor counts all rows of the result when it fills its first window,
+        // so the count is already known by now and asking for it costs nothing
+        boolean hasMore = cursor.getPosition() + 1 < cursor.getCount();
+
+        data.add(Arrays.asList(cursor.getColumnNames()));
+        data.add(rows);
+        data.add(hasMore);
+      }
+      promise.resolve(data);
+    } catch (Exception e) {
+      promise.reject("SQLiteError", e);
+    }
+  }
+
+  @ExpoMethod
+  public void closeCursor(Integer cursorId, final Promise promise) {
+    OpenCursor openCursor = OPEN_CURSORS.remove(cursorId);
+    mCursorIds.remove(cursorId);
+    if (openCursor != null) {
+      openCursor.close();
+    }
+    promise.resolve(null);
+  }
+
   @ExpoMethod
   public void close(String dbName, final Promise promise) {
-    DATABASES.get(dbName).close();
-    DATABASES.remove(dbName);
+    SQLiteConnectionPool pool;
+    synchronized (DATABASES_LOCK) {
+      closeCursorsOfDatabase(dbName);
+      pool = DATABASES.remove(dbName);
+    }
+    // closing waits for the writer to finish, which must not block other databases from being opened
+    if (pool != null) {
+      pool.close();
+    }
     promise.resolve(null);
   }
 
-  // do a update/delete/insert operation
-  private SQLitePluginResult doUpdateInBackgroundAndPossiblyThrow(String sql, String[] bindArgs,
-                                                                  SQLiteDatabase db) {
-    SQLiteStatement statement = null;
-    try {
-      statement = db.compileStatement(sql);
-      if (bindArgs != null) {
-        for (int i = bindArgs.length; i != 0; i--) {
-          if (bindArgs[i - 1] == null) {
-            statement.bindNull(i);
+  private SQLitePluginResult[] executeQueries(SQLiteDatabase db, SQLiteStatementCache statementCache,
+                                              ArrayList<ArrayList<Object>> queries, boolean readOnly,
+                                              boolean stopOnError) {
+    int numQueries = queries.size();
+    SQLitePluginResult[] results = new SQLitePluginResult[numQueries];
+
+    for (int i = 0; i < numQueries; i++) {
+      ArrayList<Object> sqlQuery = queries.get(i);
+      String sql = (String) sqlQuery.get(0);
+      Object[] bindArgs = convertParamsToBindArgs(sqlQuery.get(1));
+      try {
+        if (isSelect(sql)) {
+          results[i] = doSelectInBackgroundAndPossiblyThrow(sql, bindArgs, db);
+        } else { // update/insert/delete
+          if (readOnly) {
+            results[i] = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, new ReadOnlyException());
           } else {
-            statement.bindString(i, bindArgs[i - 1]);
+            results[i] = doUpdateInBackgroundAndPossiblyThrow(sql, bindArgs, statementCache);
           }
         }
+      } catch (Throwable e) {
+        if (DEBUG_MODE) {
+          e.printStackTrace();
+        }
+        results[i] = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, e);
       }
-      if (isInsert(sql)) {
-        long insertId = statement.executeInsert();
-        int rowsAffected = insertId >= 0 ? 1 : 0;
-        return new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, rowsAffected, insertId, null);
-      } else if (isDelete(sql) || isUpdate(sql)) {
-        int rowsAffected = statement.executeUpdateDelete();
-        return new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, rowsAffected, 0, null);
-      } else {
-        // in this case, we don't need rowsAffected or insertId, so we can have a slight
-        // perf boost by just executing the query
-        statement.execute();
-        return EMPTY_RESULT;
+
+      if (stopOnError && results[i].error != null) {
+        for (int j = i + 1; j < numQueries; j++) {
+          results[j] = new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, 0, 0, new TransactionRolledBackException());
+        }
+        break;
       }
-    } finally {
-      if (statement != null) {
-        statement.close();
+    }
+    return results;
+  }
+
+  private static boolean containsWrites(ArrayList<ArrayList<Object>> queries) {
+    for (ArrayList<Object> sqlQuery : queries) {
+      if (!isSelect((String) sqlQuery.get(0))) {
+        return true;
       }
     }
+    return false;
+  }
+
+  private static boolean hasError(SQLitePluginResult[] results) {
+    for (SQLitePluginResult result : results) {
+      if (result.error != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // do a update/delete/insert operation
+  private SQLitePluginResult doUpdateInBackgroundAndPossiblyThrow(String sql, Object[] bindArgs,
+                                                                  SQLiteStatementCache statementCache) {
+    // statements are cached and reused, so they must not be closed here
+    SQLiteStatement statement = statementCache.get(sql);
+    bindTypedArgs(statement, bindArgs);
+    if (isInsert(sql)) {
+      long insertId = statement.executeInsert();
+      int rowsAffected = insertId >= 0 ? 1 : 0;
+      return new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, rowsAffected, insertId, null);
+    } else if (isDelete(sql) || isUpdate(sql)) {
+      int rowsAffected = statement.executeUpdateDelete();
+      return new SQLitePluginResult(EMPTY_ROWS, EMPTY_COLUMNS, rowsAffected, 0, null);
+    } else {
+      // in this case, we don't need rowsAffected or insertId, so we can have a slight
+      // perf boost by just executing the query
+      statement.execute();
+      return EMPTY_RESULT;
+    }
   }
 
   // do a select operation
-  private SQLitePluginResult doSelectInBackgroundAndPossiblyThrow(String sql, String[] bindArgs,
+  private SQLitePluginResult doSelectInBackgroundAndPossiblyThrow(String sql, Object[] bindArgs,
                                                                   SQLiteDatabase db) {
     Cursor cursor = null;
     try {
-      cursor = db.rawQuery(sql, bindArgs);
-      int numRows = cursor.getCount();
-      if (numRows == 0) {
+      cursor = query(db, sql, bindArgs);
+      // SQLiteCursor counts all rows of the result when it fills its first window anyway,
+      // so the count only saves growing the list as the rows are read
+      int count = cursor.getCount();
+      if (count == 0) {
         return EMPTY_RESULT;
       }
-      int numColumns = cursor.getColumnCount();
-      Object[][] rows = new Object[numRows][];
-      String[] columnNames = cursor.getColumnNames();
-      for (int i = 0; cursor.moveToNext(); i++) {
-        Object[] row = new Object[numColumns];
-        for (int j = 0; j < numColumns; j++) {
-          row[j] = getValueFromCursor(cursor, j, cursor.getType(j));
-        }
-        rows[i] = row;
-      }
-      return new SQLitePluginResult(rows, columnNames, 0, 0, null);
+      List<Object> rows = new ArrayList<>(count);
+      readRows(cursor, count, rows);
+      return new SQLitePluginResult(rows, Arrays.asList(cursor.getColumnNames()), 0, 0, null);
     } finally {
       if (cursor != null) {
         cursor.close();
@@ -145,12 +386,36 @@ public class SQLiteModule extends ExportedModule {
     }
   }
 
-  private Object getValueFromCursor(Cursor cursor, int index, int columnType) {
+  private static Cursor query(SQLiteDatabase db, String sql, final Object[] bindArgs) {
+    // rawQuery could only bind arguments as strings, the factory lets us bind them with their types
+    return db.rawQueryWithFactory(new SQLiteDatabase.CursorFactory() {
+      @Override
+      public Cursor newCursor(SQLiteDatabase db, SQLiteCursorDriver driver, String editTable, SQLiteQuery query) {
+        bindTypedArgs(query, bindArgs);
+        return new SQLiteCursor(driver, editTable, query);
+      }
+    }, sql, null, null);
+  }
+
+  // reads at most maxRows next rows of the cursor into the list, each row as a list of values
+  private static void readRows(Cursor cursor, int maxRows, List<Object> rows) {
+    int numColumns = cursor.getColumnCount();
+    for (int i = 0; i < maxRows && cursor.moveToNext(); i++) {
+      List<Object> row = new ArrayList<>(numColumns);
+      for (int j = 0; j < numColumns; j++) {
+        row.add(getValueFromCursor(cursor, j, cursor.getType(j)));
+      }
+      rows.add(row);
+    }
+  }
+
+  private static Object getValueFromCursor(Cursor cursor, int index, int columnType) {
     switch (columnType) {
       case Cursor.FIELD_TYPE_FLOAT:
         return cursor.getDouble(index);
       case Cursor.FIELD_TYPE_INTEGER:
-        return cursor.getLong(index);
+        // JS numbers are doubles anyway
+        return (double) cursor.getLong(index);
       case Cursor.FIELD_TYPE_BLOB:
         // convert byte[] to binary string; it's good enough, because
         // WebSQL doesn't support blobs anyway
@@ -161,6 +426,17 @@ public class SQLiteModule extends ExportedModule {
     return null;
   }
 
+  private static void closeCursorsOfDatabase(String dbName) {
+    Iterator<OpenCursor> iterator = OPEN_CURSORS.values().iterator();
+    while (iterator.hasNext()) {
+      OpenCursor openCursor = iterator.next();
+      if (openCursor.dbName.equals(dbName)) {
+        openCursor.close();
+        iterator.remove();
+      }
+    }
+  }
+
   private static File ensureDirExists(File dir) throws IOException {
     if (!(dir.isDirectory() || dir.mkdirs())) {
       throw new IOException("Couldn't create directory '" + dir + "'");
@@ -174,18 +450,26 @@ public class SQLiteModule extends ExportedModule {
     return directory + File.separator + name;
   }
 
-  private SQLiteDatabase getDatabase(String name) throws IOException {
-    SQLiteDatabase database = null;
+  private SQLiteConnectionPool getConnectionPool(String name) throws IOException {
     String path = pathForDatabaseName(name);
-    if ((new File(path)).exists()) {
-      database = DATABASES.get(name);
+    SQLiteConnectionPool pool = null;
+    SQLiteConnectionPool previousPool = null;
+    synchronized (DATABASES_LOCK) {
+      if ((new File(path)).exists()) {
+        pool = DATABASES.get(name);
+      }
+      if (pool == null || !pool.isOpen()) {
+        previousPool = DATABASES.remove(name);
+        closeCursorsOfDatabase(name);
+        pool = SQLiteConnectionPool.open(path, WAL_DATABASES.contains(name), STATEMENT_CACHE_SIZE);
+        DATABASES.put(name, pool);
+      }
     }
-    if (database == null) {
-      DATABASES.remove(name);
-      database = SQLiteDatabase.openOrCreateDatabase(path, null);
-      DATABASES.put(name, database);
+    // like in close(), the previous pool may have to wait for its writer
+    if (previousPool != null) {
+      previousPool.close();
     }
-    return database;
+    return pool;
   }
 
   private static List<Object> pluginResultsToPrimitiveData(SQLitePluginResult[] results) {
@@ -207,36 +491,8 @@ public class SQLiteModule extends ExportedModule {
     }
     data.add((int) result.insertId);
     data.add(result.rowsAffected);
-
-    // column names
-    List<String> columnNames = new ArrayList<>();
-    for (int i = 0; i < result.columns.length; i++) {
-      columnNames.add(result.columns[i]);
-    }
-    data.add(columnNames);
-
-    // rows
-    List<Object> rows = new ArrayList<>();
-    for (int i = 0; i < result.rows.length; i++) {
-      Object[] values = result.rows[i];
-      // row content
-      List<Object> rowContent = new ArrayList<>();
-      for (int j = 0; j < values.length; j++) {
-        Object value = values[j];
-        if (value == null) {
-          rowContent.add(null);
-        } else if (value instanceof String) {
-          rowContent.add((String) value);
-        } else if (value instanceof Boolean) {
-          rowContent.add((Boolean) value);
-        } else {
-          Number v = (Number) value;
-          rowContent.add(v.doubleValue());
-        }
-      }
-      rows.add(rowContent);
-    }
-    data.add(rows);
+    data.add(result.columns);
+    data.add(result.rows);
     return data;
   }
 
@@ -295,19 +551,45 @@ public class SQLiteModule extends ExportedModule {
     return true;
   }
 
-  private static String[] convertParamsToStringArray(Object paramArrayArg) {
+  private static void bindTypedArgs(SQLiteProgram program, Object[] bindArgs) {
+    for (int i = bindArgs.length; i != 0; i--) {
+      Object arg = bindArgs[i - 1];
+      if (arg == null) {
+        program.bindNull(i);
+      } else if (arg instanceof Long) {
+        program.bindLong(i, (Long) arg);
+      } else if (arg instanceof Double) {
+        program.bindDouble(i, (Double) arg);
+      } else if (arg instanceof byte[]) {
+        program.bindBlob(i, (byte[]) arg);
+      } else {
+        program.bindString(i, (String) arg);
+      }
+    }
+  }
+
+  // converts JS arguments to values which can be bound by their native type (null, long, double, blob or string)
+  private static Object[] convertParamsToBindArgs(Object paramArrayArg) {
     ArrayList<Object> paramArray = (ArrayList<Object>) paramArrayArg;
     int len = paramArray.size();
-    String[] res = new String[len];
+    Object[] res = new Object[len];
     for (int i = 0; i < len; i++) {
       Object object = paramArray.get(i);
       res[i] = null;
       if (object instanceof String) {
-        res[i] = unescapeBlob((String) object);
+        String value = unescapeBlob((String) object);
+        // only blobs contain NUL characters once unescaped, bind them as such - reading them back
+        // turns them into strings again
+        if (value != object && value.indexOf('\u0000') >= 0) {
+          res[i] = value.getBytes(StandardCharsets.UTF_8);
+        } else {
+          res[i] = value;
+        }
       } else if (object instanceof Boolean) {
-        res[i] = ((Boolean) object) ? "0" : "1";
+        res[i] = ((Boolean) object) ? 0L : 1L;
       } else if (object instanceof Double) {
-        res[i] = object.toString();
+        // bound as is, column affinity decides whether whole numbers are stored as integers
+        res[i] = object;
       } else if (object != null) {
         throw new ClassCastException("Cound not find proper type in SQLite module");
       }
@@ -315,20 +597,52 @@ public class SQLiteModule extends ExportedModule {
     return res;
   }
 
+  // reverts escaping done in JS (\u0002 -> \u0002\u0002, \u0001 -> \u0001\u0002, \u0000 -> \u0001\u0001)
+  // in a single pass, allocating only when the string contains escaped characters
   private static String unescapeBlob(String str) {
-    return str.replaceAll("\u0001\u0001", "\u0000")
-        .replaceAll("\u0001\u0002", "\u0001")
-        .replaceAll("\u0002\u0002", "\u0002");
+    int len = str.length();
+    int i = 0;
+    while (i < len && str.charAt(i) != '\u0001' && str.charAt(i) != '\u0002') {
+      i++;
+    }
+    if (i == len) {
+      return str;
+    }
+
+    StringBuilder builder = new StringBuilder(len);
+    builder.append(str, 0, i);
+    while (i < len) {
+      char ch = str.charAt(i);
+      if (i + 1 < len && (ch == '\u0001' || ch == '\u0002')) {
+        char next = str.charAt(i + 1);
+        if (ch == '\u0001' && next == '\u0001') {
+          builder.append('\u0000');
+          i += 2;
+          continue;
+        } else if (ch == '\u0001' && next == '\u0002') {
+          builder.append('\u0001');
+          i += 2;
+          continue;
+        } else if (ch == '\u0002' && next == '\u0002') {
+          builder.append('\u0002');
+          i += 2;
+          continue;
+        }
+      }
+      builder.append(ch);
+      i++;
+    }
+    return builder.toString();
   }
 
   private static class SQLitePluginResult {
-    public final Object[][] rows;
-    public final String[] columns;
+    public final List<Object> rows;
+    public final List<String> columns;
     public final int rowsAffected;
     public final long insertId;
     public final Throwable error;
 
-    public SQLitePluginResult(Object[][] rows, String[] columns,
+    public SQLitePluginResult(List<Object> rows, List<String> columns,
                               int rowsAffected, long insertId, Throwable error) {
       this.rows = rows;
       this.columns = columns;
@@ -338,9 +652,29 @@ public class SQLiteModule extends ExportedModule {
     }
   }
 
+  private static class OpenCursor {
+    public final String dbName;
+    public final Cursor cursor;
+
+    public OpenCursor(String dbName, Cursor cursor) {
+      this.dbName = dbName;
+      this.cursor = cursor;
+    }
+
+    public synchronized void close() {
+      cursor.close();
+    }
+  }
+
   private static class ReadOnlyException extends Exception {
     public ReadOnlyException() {
       super("could not prepare statement (23 not authorized)");
     }
   }
+
+  private static class TransactionRolledBackException extends Exception {
+    public TransactionRolledBackException() {
+      super("transaction rolled back because of an error in a previous statement");
+    }
+  }
 }
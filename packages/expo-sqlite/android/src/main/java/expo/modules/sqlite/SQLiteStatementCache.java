@@ -0,0 +1,52 @@
+// Copyright 2015-present 650 Industries. All rights reserved.
+package expo.modules.sqlite;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of compiled statements of a single database, keyed by SQL text.
+ * Statements evicted from the cache get closed. Not thread-safe, callers have to synchronize.
+ */
+class SQLiteStatementCache {
+  private final SQLiteDatabase mDatabase;
+  private final LinkedHashMap<String, SQLiteStatement> mStatements;
+
+  SQLiteStatementCache(SQLiteDatabase database, final int maxSize) {
+    mDatabase = database;
+    mStatements = new LinkedHashMap<String, SQLiteStatement>(maxSize, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SQLiteStatement> eldest) {
+        if (size() > maxSize) {
+          eldest.getValue().close();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * Returns a compiled statement for the SQL, with any bindings from previous executions cleared.
+   */
+  SQLiteStatement get(String sql) {
+    SQLiteStatement statement = mStatements.get(sql);
+    if (statement == null) {
+      statement = mDatabase.compileStatement(sql);
+      mStatements.put(sql, statement);
+    } else {
+      statement.clearBindings();
+    }
+    return statement;
+  }
+
+  void clear() {
+    for (SQLiteStatement statement : mStatements.values()) {
+      statement.close();
+    }
+    mStatements.clear();
+  }
+}
@@ -2,7 +2,7 @@ import './polyfillNextTick';
 
 import zipObject from 'lodash.zipobject';
 import { Platform } from 'react-native';
-import { NativeModulesProxy } from '@unimodules/core';
+import { NativeModulesProxy, UnavailabilityError } from '@unimodules/core';
 import customOpenDatabase from '@expo/websql/custom';
 
 const { ExponentSQLite } = NativeModulesProxy;
@@ -19,6 +19,44 @@ type InternalResultSet =
 
 export type SQLiteCallback = (error?: Error | null, resultSet?: InternalResultSet) => void;
 
+export type SQLiteCursorRows = {
+  rows: Array<{ [column: string]: any }>;
+  hasMore: boolean;
+};
+
+export type SQLiteColumnarResultSet = {
+  rowsCount: number;
+  columns: { [column: string]: any[] };
+};
+
+class SQLiteCursor {
+  _id: number;
+  _closed: boolean = false;
+
+  constructor(id: number) {
+    this._id = id;
+  }
+
+  async fetchRows(maxRows: number): Promise<SQLiteCursorRows> {
+    if (this._closed) {
+      throw new Error(`The SQLite cursor is closed`);
+    }
+    const [columns, rows, hasMore] = await ExponentSQLite.fetchCursorRows(this._id, maxRows);
+    return {
+      rows: rows.map(row => zipObject(columns, row)),
+      hasMore,
+    };
+  }
+
+  async close(): Promise<void> {
+    if (this._closed) {
+      return;
+    }
+    this._closed = true;
+    await ExponentSQLite.closeCursor(this._id);
+  }
+}
+
 class SQLiteDatabase {
   _name: string;
   _closed: boolean = false;
@@ -28,11 +66,64 @@ class SQLiteDatabase {
   }
 
   exec(queries: InternalQuery[], readOnly: boolean, callback: SQLiteCallback): void {
+    this._execNative('exec', queries, readOnly, callback);
+  }
+
+  execInTransaction(queries: InternalQuery[], readOnly: boolean, callback: SQLiteCallback): void {
+    this._execNative('execInTransaction', queries, readOnly, callback);
+  }
+
+  async setWriteAheadLoggingEnabled(enabled: boolean): Promise<void> {
+    this._ensureOpen();
+    if (!ExponentSQLite.setWriteAheadLoggingEnabled) {
+      throw new UnavailabilityError('SQLite', 'setWriteAheadLoggingEnabled');
+    }
+    await ExponentSQLite.setWriteAheadLoggingEnabled(this._name, enabled);
+  }
+
+  async openCursor(sql: string, args: unknown[] = []): Promise<SQLiteCursor> {
+    this._ensureOpen();
+    if (!ExponentSQLite.openCursor) {
+      throw new UnavailabilityError('SQLite', 'openCursor');
+    }
+    const [serializedSql, serializedArgs] = _serializeQuery({ sql, args });
+    const cursorId = await ExponentSQLite.openCursor(this._name, serializedSql, serializedArgs);
+    return new SQLiteCursor(cursorId);
+  }
+
+  async queryColumnar(sql: string, args: unknown[] = []): Promise<SQLiteColumnarResultSet> {
+    this._ensureOpen();
+    if (!ExponentSQLite.queryColumnar) {
+      throw new UnavailabilityError('SQLite', 'queryColumnar');
+    }
+    const [serializedSql, serializedArgs] = _serializeQuery({ sql, args });
+    const nativeResult = await ExponentSQLite.queryColumnar(this._name, serializedSql, serializedArgs);
+    return _deserializeColumnarResultSet(nativeResult);
+  }
+
+  close() {
+    this._closed = true;
+    ExponentSQLite.close(this._name);
+  }
+
+  _ensureOpen(): void {
     if (this._closed) {
       throw new Error(`The SQLite database is closed`);
     }
+  }
 
-    ExponentSQLite.exec(this._name, queries.map(_serializeQuery), readOnly).then(
+  _execNative(
+    methodName: string,
+    queries: InternalQuery[],
+    readOnly: boolean,
+    callback: SQLiteCallback
+  ): void {
+    this._ensureOpen();
+    if (!ExponentSQLite[methodName]) {
+      throw new UnavailabilityError('SQLite', methodName);
+    }
+
+    ExponentSQLite[methodName](this._name, queries.map(_serializeQuery), readOnly).then(
       nativeResultSets => {
         callback(null, nativeResultSets.map(_deserializeResultSet));
       },
@@ -42,11 +133,6 @@ class SQLiteDatabase {
       }
     );
   }
-
-  close() {
-    this._closed = true;
-    ExponentSQLite.close(this._name);
-  }
 }
 
 function _serializeQuery(query: InternalQuery): [string, unknown[]] {
@@ -68,6 +154,17 @@ function _deserializeResultSet(nativeResult): InternalResultSet {
   };
 }
 
+function _deserializeColumnarResultSet(nativeResult): SQLiteColumnarResultSet {
+  const [columnNames, rowsCount, nativeColumns] = nativeResult;
+  const columns = {};
+  columnNames.forEach((columnName, i) => {
+    // each column is [type, values, nulls], where nulls is a mask of rows holding null
+    const [, values, nulls] = nativeColumns[i];
+    columns[columnName] = nulls ? values.map((value, j) => (nulls[j] ? null : value)) : values;
+  });
+  return { rowsCount, columns };
+}
+
 function _escapeBlob<T>(data: T): T {
   if (typeof data === 'string') {
     /* eslint-disable no-control-regex */
@@ -83,10 +180,23 @@ function _escapeBlob<T>(data: T): T {
 
 const _openExpoSQLiteDatabase = customOpenDatabase(SQLiteDatabase);
 
-function addExecMethod(db: any): WebSQLDatabase {
-  db.exec = (queries: InternalQuery[], readOnly: boolean, callback: SQLiteCallback): void) => {
+function addNativeMethods(db: any): WebSQLDatabase {
+  db.exec = (queries: InternalQuery[], readOnly: boolean, callback: SQLiteCallback): void => {
     db._db.exec(queries, readOnly, callback);
-  }
+  };
+  db.execInTransaction = (
+    queries: InternalQuery[],
+    readOnly: boolean,
+    callback: SQLiteCallback
+  ): void => {
+    db._db.execInTransaction(queries, readOnly, callback);
+  };
+  db.setWriteAheadLoggingEnabled = (enabled: boolean): Promise<void> =>
+    db._db.setWriteAheadLoggingEnabled(enabled);
+  db.openCursor = (sql: string, args?: unknown[]): Promise<SQLiteCursor> =>
+    db._db.openCursor(sql, args);
+  db.queryColumnar = (sql: string, args?: unknown[]): Promise<SQLiteColumnarResultSet> =>
+    db._db.queryColumnar(sql, args);
   return db;
 }
 
@@ -101,8 +211,8 @@ export function openDatabase(
     throw new TypeError(`The database name must not be undefined`);
   }
   const db = _openExpoSQLiteDatabase(name, version, description, size, callback);
-  const dbWithExec = addExecMethod(db);
-  return dbWithExec;
+  const dbWithNativeMethods = addNativeMethods(db);
+  return dbWithNativeMethods;
 }
 
 type WebSQLDatabase = unknown;
@@ -0,0 +1,198 @@
+package expo.modules.taskManager;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import expo.loaders.provider.interfaces.AppRecordInterface;
+
+/**
+ * Pool of headless apps loaded to execute background tasks. Apps are kept warm for a while after their last
+ * event has finished, so a burst of events (e.g. geofencing or location updates) loads the app only once.
+ * The pool is bounded - least recently used idle apps are evicted when it gets full or when the system
+ * is running low on memory.
+ */
+class HeadlessAppPool implements ComponentCallbacks2 {
+  private static final String TAG = "HeadlessAppPool";
+
+  // Maximum number of apps kept in the pool. Apps that are still executing tasks are never evicted,
+  // so the pool may temporarily exceed this size.
+  private static final int MAX_SIZE = 3;
+
+  // Time after which an app that has no events to execute gets invalidated.
+  private static final long IDLE_TIMEOUT_MS = 30000; // 30 seconds
+
+  interface Listener {
+    /**
+     *  Returns whether the app has no events in progress, so it can be evicted from the pool.
+     */
+    boolean isAppIdle(String appId);
+
+    /**
+     *  Called after the app record has been invalidated and removed from the pool.
+     */
+    void onAppEvicted(String appId);
+  }
+
+  // { "<appId>": AppRecordInterface } in the least recently used order.
+  private final LinkedHashMap<String, AppRecordInterface> mAppRecords = new LinkedHashMap<>(MAX_SIZE, 0.75f, true);
+
+  // { "<appId>": Runnable } scheduled to evict apps that went idle.
+  private final Map<String, Runnable> mIdleEvictions = new HashMap<>();
+
+  private final Handler mHandler = new Handler(Looper.getMainLooper());
+  private final Listener mListener;
+
+  private int mColdStartsCount = 0;
+  private int mWarmStartsCount = 0;
+  private int mEvictionsCount = 0;
+
+  HeadlessAppPool(Context context, Listener listener) {
+    mListener = listener;
+    context.getApplicationContext().registerComponentCallbacks(this);
+  }
+
+  synchronized boolean contains(String appId) {
+    return mAppRecords.containsKey(appId);
+  }
+
+  /**
+   *  Adds newly loaded app to the pool, evicting least recently used idle apps if the pool is full.
+   */
+  synchronized void put(String appId, AppRecordInterface appRecord) {
+    mAppRecords.put(appId, appRecord);
+    mColdStartsCount++;
+    cancelIdleEviction(appId);
+
+    Log.i(TAG, "Cold start of headless app '" + appId + "'. " + getMetrics());
+
+    trimToSize(MAX_SIZE);
+  }
+
+  /**
+   *  Marks that an event is being executed by already loaded app. Returns `false` if the app is not in the pool.
+   */
+  synchronized boolean markWarmStart(String appId) {
+    if (mAppRecords.get(appId) == null) {
+      return false;
+    }
+    mWarmStartsCount++;
+    cancelIdleEviction(appId);
+
+    Log.i(TAG, "Warm start of headless app '" + appId + "'. " + getMetrics());
+    return true;
+  }
+
+  /**
+   *  Removes the app from the pool without invalidating it, e.g. when it failed to load.
+   */
+  synchronized void remove(String appId) {
+    cancelIdleEviction(appId);
+    mAppRecords.remove(appId);
+  }
+
+  /**
+   *  Schedules eviction of the app once it stays idle for some time. Any new event executed by the app cancels it.
+   */
+  synchronized void scheduleIdleEviction(final String appId) {
+    if (!mAppRecords.containsKey(appId)) {
+      return;
+    }
+    cancelIdleEviction(appId);
+
+    Runnable eviction = new Runnable() {
+      @Override
+      public void run() {
+        synchronized (HeadlessAppPool.this) {
+          mIdleEvictions.remove(appId);
+
+          if (mListener.isAppIdle(appId)) {
+            evict(appId);
+          }
+        }
+      }
+    };
+    mIdleEvictions.put(appId, eviction);
+    mHandler.postDelayed(eviction, IDLE_TIMEOUT_MS);
+  }
+
+  //region ComponentCallbacks2
+
+  @Override
+  public void onTrimMemory(int level) {
+    // TRIM_MEMORY_UI_HIDDEN only means the app went to background, it isn't worth evicting warm apps.
+    if (level == TRIM_MEMORY_RUNNING_LOW || level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_BACKGROUND) {
+      synchronized (this) {
+        Log.i(TAG, "Evicting idle headless apps due to memory pressure (level " + level + ").");
+        trimToSize(0);
+      }
+    }
+  }
+
+  @Override
+  public void onLowMemory() {
+    onTrimMemory(TRIM_MEMORY_COMPLETE);
+  }
+
+  @Override
+  public void onConfigurationChanged(Configuration newConfig) {
+    // noop
+  }
+
+  //endregion
+  //region private
+
+  private void trimToSize(int maxSize) {
+    if (mAppRecords.size() <= maxSize) {
+      return;
+    }
+
+    // Iterating over a copy as evicting modifies the map.
+    List<String> appIds = new ArrayList<>(mAppRecords.keySet());
+
+    for (String appId : appIds) {
+      if (mAppRecords.size() <= maxSize) {
+        return;
+      }
+      if (mListener.isAppIdle(appId)) {
+        evict(appId);
+      }
+    }
+  }
+
+  private void evict(String appId) {
+    AppRecordInterface appRecord = mAppRecords.remove(appId);
+    cancelIdleEviction(appId);
+
+    if (appRecord != null) {
+      appRecord.invalidate();
+      mEvictionsCount++;
+      mListener.onAppEvicted(appId);
+
+      Log.i(TAG, "Evicted headless app '" + appId + "'. " + getMetrics());
+    }
+  }
+
+  private void cancelIdleEviction(String appId) {
+    Runnable eviction = mIdleEvictions.remove(appId);
+
+    if (eviction != null) {
+      mHandler.removeCallbacks(eviction);
+    }
+  }
+
+  private String getMetrics() {
+    return "Pool size: " + mAppRecords.size() + ", cold starts: " + mColdStartsCount + ", warm starts: " + mWarmStartsCount + ", evictions: " + mEvictionsCount + ".";
+  }
+
+  //endregion
+}
@@ -4,26 +4,23 @@ import android.app.job.JobParameters;
 import android.app.job.JobService;
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.PersistableBundle;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.unimodules.core.interfaces.SingletonModule;
 import org.unimodules.interfaces.taskManager.TaskExecutionCallback;
@@ -46,40 +43,51 @@ import expo.modules.taskManager.exceptions.TaskNotFoundException;
 
 public class TaskService implements SingletonModule, TaskServiceInterface {
   private static final String TAG = "TaskService";
-  private static final String SHARED_PREFERENCES_NAME = "TaskManagerModule";
   private static final int MAX_TASK_EXECUTION_TIME_MS = 15000; // 15 seconds
 
   private WeakReference<Context> mContextRef;
   private TaskManagerUtilsInterface mTaskManagerUtils;
 
+  // All static maps can be accessed from different threads (e.g. job service and the module at the same time),
+  // hence they are concurrent. Changes of the tasks table are additionally serialized by `sTasksLock`
+  // to keep it consistent with the task store.
+
   // { "<appId>": { "<taskName>": TaskInterface } }
-  private static Map<String, Map<String, TaskInterface>> sTasksTable = null;
+  private static final ConcurrentMap<String, Map<String, TaskInterface>> sTasksTable = new ConcurrentHashMap<>();
+  private static final Object sTasksLock = new Object();
+  private static boolean sTasksRestored = false;
 
   // Map with task managers of running (foregrounded) apps. { "<appId>": WeakReference(TaskManagerInterface) }
-  private static final Map<String, WeakReference<TaskManagerInterface>> sTaskManagers = new HashMap<>();
+  private static final Map<String, WeakReference<TaskManagerInterface>> sTaskManagers = new ConcurrentHashMap<>();
 
   // Same as above but for headless (backgrounded) apps.
-  private static final Map<String, WeakReference<TaskManagerInterface>> sHeadlessTaskManagers = new HashMap<>();
+  private static final Map<String, WeakReference<TaskManagerInterface>> sHeadlessTaskManagers = new ConcurrentHashMap<>();
 
   // { "<appId>": List(eventIds...) }
-  private static final Map<String, List<String>> sEvents = new HashMap<>();
+  private static final ConcurrentMap<String, List<String>> sEvents = new ConcurrentHashMap<>();
 
   // { "<appId>": List(eventBodies...) }
-  private static final Map<String, List<Bundle>> sEventsQueues = new HashMap<>();
+  private static final ConcurrentMap<String, List<Bundle>> sEventsQueues = new ConcurrentHashMap<>();
 
-  // { "<appId>": AppRecordInterface }
-  private static final Map<String, AppRecordInterface> sAppRecords = new HashMap<>();
+  // Headless apps that are loading or already loaded, kept warm between events.
+  private static HeadlessAppPool sHeadlessAppPool = null;
 
   // Map of callbacks for task execution events. Schema: { "<eventId>": TaskExecutionCallback }
-  private static final Map<String, TaskExecutionCallback> sTaskCallbacks = new HashMap<>();
+  private static final Map<String, TaskExecutionCallback> sTaskCallbacks = new ConcurrentHashMap<>();
 
   public TaskService(Context context) {
     super();
     mContextRef = new WeakReference<>(context);
 
-    if (sTasksTable == null) {
-      sTasksTable = new HashMap<>();
-      restoreTasks();
+    synchronized (sTasksLock) {
+      if (!sTasksRestored) {
+        // Restoring is retried by the next instance if there is no context or the store fails.
+        try {
+          sTasksRestored = restoreTasks();
+        } catch (RuntimeException e) {
+          Log.e(TAG, "Failed to restore tasks: " + e.getMessage());
+        }
+      }
     }
   }
 
@@ -97,59 +105,65 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
 
   @Override
   public void registerTask(String taskName, String appId, String appUrl, Class consumerClass, Map<String, Object> options) throws TaskRegisteringFailedException {
-    TaskInterface task = getTask(taskName, appId);
-    Class unversionedConsumerClass = unversionedClassForClass(consumerClass);
-
-    if (task != null && unversionedConsumerClass != null && unversionedConsumerClass.isInstance(task.getConsumer())) {
-      // Task already exists. Let's just update its options.
-      task.setOptions(options);
-      task.getConsumer().setOptions(options);
-    } else {
-      internalRegisterTask(taskName, appId, appUrl, consumerClass, options);
+    synchronized (sTasksLock) {
+      TaskInterface task = getTask(taskName, appId);
+      Class unversionedConsumerClass = unversionedClassForClass(consumerClass);
+
+      if (task != null && unversionedConsumerClass != null && unversionedConsumerClass.isInstance(task.getConsumer())) {
+        // Task already exists. Let's just update its options.
+        task.setOptions(options);
+        task.getConsumer().setOptions(options);
+      } else {
+        task = internalRegisterTask(taskName, appId, appUrl, consumerClass, options);
+      }
+      saveTask(task);
     }
-    saveTasksForAppWithId(appId);
   }
 
   @Override
   public void unregisterTask(String taskName, String appId, Class consumerClass) throws TaskNotFoundException, InvalidConsumerClassException {
-    TaskInterface task = getTask(taskName, appId);
-    Class unversionedConsumerClass = unversionedClassForClass(consumerClass);
+    synchronized (sTasksLock) {
+      TaskInterface task = getTask(taskName, appId);
+      Class unversionedConsumerClass = unversionedClassForClass(consumerClass);
 
-    // Task not found.
-    if (task == null) {
-      throw new TaskNotFoundException(taskName, appId);
-    }
+      // Task not found.
+      if (task == null) {
+        throw new TaskNotFoundException(taskName, appId);
+      }
 
-    // Check if the consumer is an instance of given consumer class.
-    if (unversionedConsumerClass != null && !unversionedConsumerClass.isInstance(task.getConsumer())) {
-      throw new InvalidConsumerClassException(taskName);
-    }
+      // Check if the consumer is an instance of given consumer class.
+      if (unversionedConsumerClass != null && !unversionedConsumerClass.isInstance(task.getConsumer())) {
+        throw new InvalidConsumerClassException(taskName);
+      }
 
-    Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
+      Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
 
-    if (appTasks != null) {
-      appTasks.remove(taskName);
-    }
+      if (appTasks != null) {
+        appTasks.remove(taskName);
+      }
 
-    Log.i(TAG, "Unregistering task '" + taskName + "' for app '" + appId + "'.");
+      Log.i(TAG, "Unregistering task '" + taskName + "' for app '" + appId + "'.");
 
-    task.getConsumer().didUnregister();
-    saveTasksForAppWithId(appId);
+      task.getConsumer().didUnregister();
+      removeTask(taskName, appId);
+    }
   }
 
   @Override
   public void unregisterAllTasksForAppId(String appId) {
-    Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
+    synchronized (sTasksLock) {
+      Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
 
-    if (appTasks != null) {
-      Log.i(TAG, "Unregistering all tasks for app '" + appId + "'.");
+      if (appTasks != null) {
+        Log.i(TAG, "Unregistering all tasks for app '" + appId + "'.");
 
-      for (TaskInterface task : appTasks.values()) {
-        task.getConsumer().didUnregister();
-      }
+        for (TaskInterface task : appTasks.values()) {
+          task.getConsumer().didUnregister();
+        }
 
-      appTasks.clear();
-      removeAppFromConfig(appId);
+        appTasks.clear();
+        removeAppFromStore(appId);
+      }
     }
   }
 
@@ -208,27 +222,26 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
 
     Log.i(TAG, "Finished task '" + taskName + "' with eventId '" + eventId + "'.");
 
+    if (eventId == null) {
+      return;
+    }
     if (appEvents != null) {
       appEvents.remove(eventId);
 
       if (appEvents.size() == 0) {
-        sEvents.remove(appId);
+        sEvents.remove(appId, appEvents);
 
-        // Invalidate app record but after 2 seconds delay so we can still take batched events.
-        Handler handler = new Handler();
-        handler.postDelayed(new Runnable() {
-          @Override
-          public void run() {
-            if (!sEvents.containsKey(appId)) {
-              invalidateAppRecord(appId);
-            }
-          }
-        }, 2000);
+        // Keep the headless app warm for a while, so the following events don't have to load it again.
+        HeadlessAppPool headlessAppPool = getHeadlessAppPool();
+
+        if (headlessAppPool != null) {
+          headlessAppPool.scheduleIdleEviction(appId);
+        }
       }
     }
 
     // Invoke task callback
-    TaskExecutionCallback taskCallback = sTaskCallbacks.get(eventId);
+    TaskExecutionCallback taskCallback = sTaskCallbacks.remove(eventId);
 
     if (taskCallback != null) {
       taskCallback.onFinished(response);
@@ -252,8 +265,8 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     // Set task manager in appropriate map.
     taskManagers.put(appId, new WeakReference<>(taskManager));
 
-    // Execute events waiting for the task manager.
-    List<Bundle> eventsQueue = sEventsQueues.get(appId);
+    // Take events waiting for the task manager and execute them.
+    List<Bundle> eventsQueue = sEventsQueues.remove(appId);
 
     if (eventsQueue != null) {
       for (Bundle body : eventsQueue) {
@@ -261,9 +274,6 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
       }
     }
 
-    // Remove events queue for that app.
-    sEventsQueues.remove(appId);
-
     if (!isHeadless) {
       // Maybe update app url in user defaults. It might change only in non-headless mode.
       maybeUpdateAppUrlForAppId(appUrl, appId);
@@ -373,33 +383,29 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
 
     String eventId = executionInfo.getString("eventId");
     String appId = task.getAppId();
-    List<String> appEvents = sEvents.get(appId);
+    List<String> appEvents = getOrCreateList(sEvents, appId);
 
     if (callback != null) {
       sTaskCallbacks.put(eventId, callback);
     }
 
-    if (appEvents == null) {
-      appEvents = new ArrayList<>();
-      appEvents.add(eventId);
-      sEvents.put(appId, appEvents);
-    } else {
-      appEvents.add(eventId);
-    }
+    appEvents.add(eventId);
+
+    HeadlessAppPool headlessAppPool = getHeadlessAppPool();
 
     if (taskManager != null) {
+      if (taskManager.isRunningInHeadlessMode() && headlessAppPool != null) {
+        headlessAppPool.markWarmStart(appId);
+      }
       taskManager.executeTaskWithBody(body);
       return;
     }
 
     // The app is not fully loaded as its task manager is not there yet.
     // We need to add event's body to the queue from which events will be executed once the task manager is ready.
-    if (!sEventsQueues.containsKey(appId)) {
-      sEventsQueues.put(appId, new ArrayList<Bundle>());
-    }
-    sEventsQueues.get(appId).add(body);
+    getOrCreateList(sEventsQueues, appId).add(body);
 
-    if (!sAppRecords.containsKey(appId)) {
+    if (headlessAppPool != null && !headlessAppPool.contains(appId)) {
       // No app record yet - let's spin it up!
 
       if (!loadApp(appId, task.getAppUrl())) {
@@ -418,13 +424,13 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
   //endregion
   //region helpers
 
-  private void internalRegisterTask(String taskName, String appId, String appUrl, Class<TaskConsumerInterface> consumerClass, Map<String, Object> options) throws TaskRegisteringFailedException {
+  private TaskInterface internalRegisterTask(String taskName, String appId, String appUrl, Class<TaskConsumerInterface> consumerClass, Map<String, Object> options) throws TaskRegisteringFailedException {
     Constructor<?> consumerConstructor;
     TaskConsumerInterface consumer;
     Context context = mContextRef.get();
 
     if (context == null) {
-      return;
+      return null;
     }
 
     try {
@@ -436,13 +442,18 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
 
     Task task = new Task(taskName, appId, appUrl, consumer, options, this);
 
-    Map<String, TaskInterface> appTasks = sTasksTable.containsKey(appId) ? sTasksTable.get(appId) : new HashMap<String, TaskInterface>();
+    Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
+
+    if (appTasks == null) {
+      appTasks = new ConcurrentHashMap<>();
+      sTasksTable.put(appId, appTasks);
+    }
     appTasks.put(taskName, task);
-    sTasksTable.put(appId, appTasks);
 
     Log.i(TAG, "Registered task with name '" + taskName + "' for app with ID '" + appId + "'.");
 
     consumer.didRegister(task);
+    return task;
   }
 
   private Bundle createExecutionEventBody(TaskInterface task, Bundle data, Error error) {
@@ -471,6 +482,9 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
   }
 
   private TaskInterface getTask(String taskName, String appId) {
+    if (taskName == null || appId == null) {
+      return null;
+    }
     Map<String, TaskInterface> appTasks = sTasksTable.get(appId);
     return appTasks != null ? appTasks.get(taskName) : null;
   }
@@ -490,108 +504,96 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     return mTaskManagerUtils;
   }
 
-  private SharedPreferences getSharedPreferences() {
+  private TaskStore getTaskStore() {
     Context context = mContextRef.get();
-    return context != null ? context.getSharedPreferences(SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE) : null;
+    return context != null ? TaskStore.getInstance(context) : null;
   }
 
   private void maybeUpdateAppUrlForAppId(String appUrl, String appId) {
-    SharedPreferences preferences = getSharedPreferences();
-    Map<String, Object> appConfig = preferences != null ? jsonToMap(preferences.getString(appId, "")) : null;
+    TaskStore store = getTaskStore();
 
-    if (appConfig != null && appConfig.size() > 0) {
-      String oldAppUrl = (String) appConfig.get("appUrl");
-
-      if (oldAppUrl == null || !oldAppUrl.equals(appUrl)) {
-        appConfig.put("appUrl", appUrl);
-
-        preferences
-            .edit()
-            .putString(appId, new JSONObject(appConfig).toString())
-            .apply();
-      }
+    if (store != null) {
+      store.updateAppUrl(appId, appUrl);
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void restoreTasks() {
-    SharedPreferences preferences = getSharedPreferences();
-    Map<String, ?> config = preferences.getAll();
-
-    for (Map.Entry<String, ?> entry : config.entrySet()) {
-      Map<String, Object> appConfig = jsonToMap(entry.getValue().toString());
-      Map<String, Object> tasksConfig = (HashMap<String, Object>) appConfig.get("tasks");
-      String appUrl = (String) appConfig.get("appUrl");
-
-      if (appUrl != null && tasksConfig != null && tasksConfig.size() > 0) {
-        for (String taskName : tasksConfig.keySet()) {
-          Map<String, Object> taskConfig = (HashMap<String, Object>) tasksConfig.get(taskName);
-          String consumerClassString = (String) taskConfig.get("consumerClass");
+  /**
+   *  Registers tasks saved in the store. Returns `false` if the store is not available.
+   */
+  private boolean restoreTasks() {
+    TaskStore store = getTaskStore();
 
-          try {
-            Class consumerClass = Class.forName(consumerClassString);
-            int currentConsumerVersion = getConsumerVersion(consumerClass);
-            int previousConsumerVersion = (Integer) taskConfig.get("consumerVersion");
+    if (store == null) {
+      return false;
+    }
 
-            // Check whether the current consumer class is compatible with the saved version
-            if (currentConsumerVersion == previousConsumerVersion) {
-              Map<String, Object> options = (HashMap<String, Object>) taskConfig.get("options");
+    for (TaskStore.TaskRecord record : store.loadTasks()) {
+      boolean restored = false;
 
-              try {
-                // register the task using internal method which doesn't change shared preferences.
-                internalRegisterTask(taskName, entry.getKey(), appUrl, consumerClass, options);
-              } catch (TaskRegisteringFailedException e) {
-                Log.e(TAG, e.getMessage());
-              }
-            } else {
-              Log.w(TAG, "Task consumer '" + consumerClassString + "' has version '" + currentConsumerVersion + "' that is not compatible with the saved version '" + previousConsumerVersion + "'.");
+      if (record.appUrl != null) {
+        try {
+          Class consumerClass = Class.forName(record.consumerClass);
+          int currentConsumerVersion = getConsumerVersion(consumerClass);
+
+          // Check whether the current consumer class is compatible with the saved version
+          if (currentConsumerVersion == record.consumerVersion) {
+            try {
+              // register the task using internal method which doesn't change the task store.
+              restored = internalRegisterTask(record.taskName, record.appId, record.appUrl, consumerClass, record.options) != null;
+            } catch (TaskRegisteringFailedException e) {
+              Log.e(TAG, e.getMessage());
             }
-          } catch (ClassNotFoundException e) {
-            Log.e(TAG, e.getMessage());
-            e.printStackTrace();
-            // nothing, just skip it.
+          } else {
+            Log.w(TAG, "Task consumer '" + record.consumerClass + "' has version '" + currentConsumerVersion + "' that is not compatible with the saved version '" + record.consumerVersion + "'.");
           }
+        } catch (ClassNotFoundException e) {
+          Log.e(TAG, e.getMessage());
+          e.printStackTrace();
+          // nothing, just skip it.
         }
       }
 
-      // Update tasks for the app to unregister tasks that couldn't be restored.
-      saveTasksForAppWithId(entry.getKey());
+      // Remove tasks that couldn't be restored.
+      if (!restored) {
+        store.removeTask(record.appId, record.taskName);
+      }
     }
+    return true;
   }
 
-  private void saveTasksForAppWithId(String appId) {
-    SharedPreferences preferences = getSharedPreferences();
-    Map<String, TaskInterface> appRow = sTasksTable.get(appId);
+  private void saveTask(TaskInterface task) {
+    TaskStore store = getTaskStore();
 
-    if (preferences == null) {
-      return;
-    }
-    if (appRow == null || appRow.size() == 0) {
-      preferences.edit().remove(appId).apply();
+    if (store == null || task == null) {
       return;
     }
 
-    Map<String, Object> appConfig = new HashMap<>();
-    Map<String, Object> tasks = new HashMap<>();
-    String appUrl = null;
+    Class consumerClass = task.getConsumer().getClass();
 
-    for (TaskInterface task : appRow.values()) {
-      Map<String, Object> taskConfig = exportTaskToMap(task);
-      tasks.put(task.getName(), taskConfig);
-      appUrl = task.getAppUrl();
-    }
+    store.saveTask(
+        task.getAppId(),
+        task.getAppUrl(),
+        task.getName(),
+        unversionedClassNameForClass(consumerClass),
+        getConsumerVersion(consumerClass),
+        task.getOptions()
+    );
+  }
 
-    appConfig.put("appUrl", appUrl);
-    appConfig.put("tasks", tasks);
+  private void removeTask(String taskName, String appId) {
+    TaskStore store = getTaskStore();
 
-    preferences
-        .edit()
-        .putString(appId, new JSONObject(appConfig).toString())
-        .apply();
+    if (store != null) {
+      store.removeTask(appId, taskName);
+    }
   }
 
-  private void removeAppFromConfig(String appId) {
-    getSharedPreferences().edit().remove(appId).apply();
+  private void removeAppFromStore(String appId) {
+    TaskStore store = getTaskStore();
+
+    if (store != null) {
+      store.removeApp(appId);
+    }
   }
 
   /**
@@ -607,19 +609,6 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     return weakRef == null ? null : weakRef.get();
   }
 
-  private Map<String, Object> exportTaskToMap(TaskInterface task) {
-    Map<String, Object> map = new HashMap<>();
-    Class consumerClass = task.getConsumer().getClass();
-    String consumerClassName = unversionedClassNameForClass(consumerClass);
-
-    map.put("name", task.getName());
-    map.put("consumerClass", consumerClassName);
-    map.put("consumerVersion", getConsumerVersion(consumerClass));
-    map.put("options", task.getOptions());
-
-    return map;
-  }
-
   private AppLoaderInterface createAppLoader() {
     // for now only react-native apps in Expo are supported
     Context context = mContextRef.get();
@@ -653,7 +642,12 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
         if (!success) {
           sEvents.remove(appId);
           sEventsQueues.remove(appId);
-          sAppRecords.remove(appId);
+
+          HeadlessAppPool headlessAppPool = getHeadlessAppPool();
+
+          if (headlessAppPool != null) {
+            headlessAppPool.remove(appId);
+          }
 
           // Host unreachable? Unregister all tasks for that app.
           unregisterAllTasksForAppId(appId);
@@ -661,18 +655,33 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
       }
     });
 
-    sAppRecords.put(appId, appRecord);
+    HeadlessAppPool headlessAppPool = getHeadlessAppPool();
+
+    if (appRecord != null && headlessAppPool != null) {
+      headlessAppPool.put(appId, appRecord);
+    }
     return true;
   }
 
-  private void invalidateAppRecord(String appId) {
-    AppRecordInterface appRecord = sAppRecords.get(appId);
+  private HeadlessAppPool getHeadlessAppPool() {
+    synchronized (TaskService.class) {
+      Context context = mContextRef.get();
+
+      if (sHeadlessAppPool == null && context != null) {
+        sHeadlessAppPool = new HeadlessAppPool(context, new HeadlessAppPool.Listener() {
+          @Override
+          public boolean isAppIdle(String appId) {
+            return !sEvents.containsKey(appId);
+          }
 
-    if (appRecord != null) {
-      appRecord.invalidate();
-      sAppRecords.remove(appId);
-      sHeadlessTaskManagers.remove(appId);
-      Log.i(TAG, "Invalidated headless app '" + appId + "'.");
+          @Override
+          public void onAppEvicted(String appId) {
+            sHeadlessTaskManagers.remove(appId);
+            Log.i(TAG, "Invalidated headless app '" + appId + "'.");
+          }
+        });
+      }
+      return sHeadlessAppPool;
     }
   }
 
@@ -686,62 +695,17 @@ public class TaskService implements SingletonModule, TaskServiceInterface {
     }, timeout);
   }
 
-  private static Map<String, Object> jsonToMap(String jsonStr) {
-    try {
-      return jsonToMap(new JSONObject(jsonStr));
-    } catch (JSONException e) {
-      return new HashMap<>();
-    }
-  }
-
-  private static Map<String, Object> jsonToMap(JSONObject json) {
-    Map<String, Object> map = new HashMap<>();
-
-    try {
-      Iterator<?> keys = json.keys();
-
-      while (keys.hasNext()) {
-        String key = (String) keys.next();
-        Object value = jsonObjectToObject(json.get(key));
-
-        map.put(key, value);
-      }
-    } catch (JSONException e) {
-      e.printStackTrace();
-    }
-    return map;
-  }
-
-  private static List<Object> jsonToList(JSONArray json) {
-    List<Object> list = new ArrayList<>();
+  private static <T> List<T> getOrCreateList(ConcurrentMap<String, List<T>> map, String key) {
+    List<T> list = map.get(key);
 
-    try {
-      for (int i = 0; i < json.length(); i++) {
-        Object value = json.get(i);
-
-        if (value instanceof JSONArray) {
-          value = jsonToList((JSONArray) value);
-        } else if (value instanceof JSONObject) {
-          value = jsonToMap((JSONObject) value);
-        }
-        list.add(value);
-      }
-    } catch (JSONException e) {
-      e.printStackTrace();
+    if (list == null) {
+      List<T> newList = new CopyOnWriteArrayList<>();
+      list = map.putIfAbsent(key, newList);
+      return list != null ? list : newList;
     }
     return list;
   }
 
-  private static Object jsonObjectToObject(Object json) {
-    if (json instanceof JSONObject) {
-      return jsonToMap((JSONObject) json);
-    }
-    if (json instanceof JSONArray) {
-      return jsonToList((JSONArray) json);
-    }
-    return json;
-  }
-
   /**
    *  Returns task consumer's version. Defaults to 0 if `VERSION` static field is not implemented.
    */
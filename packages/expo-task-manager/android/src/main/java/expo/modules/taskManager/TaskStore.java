@@ -0,0 +1,367 @@
+package expo.modules.taskManager;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.util.Log;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent registry of tasks, kept in SQLite. Each task is a separate row, so registering or
+ * unregistering a task touches only that task instead of rewriting configs of all tasks of the app.
+ *
+ * Versioned task services of older SDKs still keep tasks as JSON in shared preferences, and their tasks
+ * are restored by this store. Until they are gone, every change is mirrored to the preferences,
+ * and tasks are loaded from the preferences into the database before being read.
+ */
+class TaskStore extends SQLiteOpenHelper {
+  private static final String TAG = "TaskStore";
+  private static final String DATABASE_NAME = "ExpoTaskManager.db";
+  private static final int DATABASE_VERSION = 1;
+
+  // Name of shared preferences in which tasks are stored as JSON by versioned task services.
+  private static final String LEGACY_SHARED_PREFERENCES_NAME = "TaskManagerModule";
+
+  private static final String APPS_TABLE = "apps";
+  private static final String TASKS_TABLE = "tasks";
+
+  private static TaskStore sInstance;
+
+  private final Context mContext;
+
+  static synchronized TaskStore getInstance(Context context) {
+    if (sInstance == null) {
+      sInstance = new TaskStore(context.getApplicationContext());
+    }
+    return sInstance;
+  }
+
+  private TaskStore(Context context) {
+    super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    mContext = context;
+    setWriteAheadLoggingEnabled(true);
+  }
+
+  //region SQLiteOpenHelper
+
+  @Override
+  public void onConfigure(SQLiteDatabase db) {
+    db.setForeignKeyConstraintsEnabled(true);
+  }
+
+  @Override
+  public void onCreate(SQLiteDatabase db) {
+    db.execSQL("CREATE TABLE " + APPS_TABLE + " ("
+        + "app_id TEXT PRIMARY KEY NOT NULL, "
+        + "app_url TEXT)");
+    db.execSQL("CREATE TABLE " + TASKS_TABLE + " ("
+        + "app_id TEXT NOT NULL REFERENCES " + APPS_TABLE + " (app_id) ON DELETE CASCADE, "
+        + "task_name TEXT NOT NULL, "
+        + "consumer_class TEXT NOT NULL, "
+        + "consumer_version INTEGER NOT NULL, "
+        + "options TEXT, "
+        + "PRIMARY KEY (app_id, task_name))");
+  }
+
+  @Override
+  public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+    // There is only one version of the schema so far.
+  }
+
+  //endregion
+  //region store
+
+  /**
+   * Returns all tasks saved in the store, including the ones saved by versioned task services.
+   */
+  List<TaskRecord> loadTasks() {
+    SQLiteDatabase db = getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      importLegacyTasks(db);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+
+    Cursor cursor = db.rawQuery("SELECT t.app_id, a.app_url, t.task_name, t.consumer_class, t.consumer_version, t.options"
+        + " FROM " + TASKS_TABLE + " t JOIN " + APPS_TABLE + " a ON t.app_id = a.app_id", null);
+
+    try {
+      List<TaskRecord> records = new ArrayList<>(cursor.getCount());
+
+      while (cursor.moveToNext()) {
+        records.add(new TaskRecord(
+            cursor.getString(0),
+            cursor.getString(1),
+            cursor.getString(2),
+            cursor.getString(3),
+            cursor.getInt(4),
+            cursor.isNull(5) ? null : jsonToMap(cursor.getString(5))
+        ));
+      }
+      return records;
+    } finally {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Inserts the task or replaces the one with the same name, together with the url of its app.
+   */
+  void saveTask(String appId, String appUrl, String taskName, String consumerClass, int consumerVersion, Map<String, Object> options) {
+    SQLiteDatabase db = getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      insertTask(db, appId, appUrl, taskName, consumerClass, consumerVersion, options);
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+    exportLegacyApp(db, appId);
+  }
+
+  /**
+   * Removes the task. The app is removed as well if it has no tasks left.
+   */
+  void removeTask(String appId, String taskName) {
+    SQLiteDatabase db = getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      db.delete(TASKS_TABLE, "app_id = ? AND task_name = ?", new String[]{ appId, taskName });
+      db.delete(APPS_TABLE, "app_id = ? AND NOT EXISTS (SELECT 1 FROM " + TASKS_TABLE + " WHERE app_id = ?)", new String[]{ appId, appId });
+      db.setTransactionSuccessful();
+    } finally {
+      db.endTransaction();
+    }
+    exportLegacyApp(db, appId);
+  }
+
+  /**
+   * Removes the app with all its tasks.
+   */
+  void removeApp(String appId) {
+    SQLiteDatabase db = getWritableDatabase();
+
+    db.delete(APPS_TABLE, "app_id = ?", new String[]{ appId });
+    exportLegacyApp(db, appId);
+  }
+
+  /**
+   * Updates url of the app, if it has any tasks saved.
+   */
+  void updateAppUrl(String appId, String appUrl) {
+    if (appUrl == null) {
+      return;
+    }
+    ContentValues values = new ContentValues();
+    values.put("app_url", appUrl);
+    SQLiteDatabase db = getWritableDatabase();
+
+    if (db.update(APPS_TABLE, values, "app_id = ? AND app_url IS NOT ?", new String[]{ appId, appUrl }) > 0) {
+      exportLegacyApp(db, appId);
+    }
+  }
+
+  //endregion
+  //region helpers
+
+  private static void insertTask(SQLiteDatabase db, String appId, String appUrl, String taskName, String consumerClass, int consumerVersion, Map<String, Object> options) {
+    ContentValues appValues = new ContentValues();
+    appValues.put("app_id", appId);
+    appValues.put("app_url", appUrl);
+
+    // Don't replace existing app rows as it would delete all their tasks.
+    if (db.insertWithOnConflict(APPS_TABLE, null, appValues, SQLiteDatabase.CONFLICT_IGNORE) == -1) {
+      db.update(APPS_TABLE, appValues, "app_id = ?", new String[]{ appId });
+    }
+
+    ContentValues taskValues = new ContentValues();
+    taskValues.put("app_id", appId);
+    taskValues.put("task_name", taskName);
+    taskValues.put("consumer_class", consumerClass);
+    taskValues.put("consumer_version", consumerVersion);
+    taskValues.put("options", options != null ? new JSONObject(options).toString() : null);
+
+    db.insertWithOnConflict(TASKS_TABLE, null, taskValues, SQLiteDatabase.CONFLICT_REPLACE);
+  }
+
+  /**
+   * Replaces tasks in the database with the ones saved in shared preferences. Preferences hold all of the tasks,
+   * as changes made by this store are mirrored there, and they may also have been changed by versioned task services.
+   */
+  @SuppressWarnings("unchecked")
+  private void importLegacyTasks(SQLiteDatabase db) {
+    SharedPreferences preferences = getLegacyPreferences();
+    Map<String, ?> config = preferences.getAll();
+
+    // Tasks are removed together with their apps.
+    db.delete(APPS_TABLE, null, null);
+
+    for (Map.Entry<String, ?> entry : config.entrySet()) {
+      Map<String, Object> appConfig = jsonToMap(entry.getValue().toString());
+      Map<String, Object> tasksConfig = (Map<String, Object>) appConfig.get("tasks");
+      String appUrl = (String) appConfig.get("appUrl");
+
+      if (appUrl == null || tasksConfig == null) {
+        continue;
+      }
+
+      for (Map.Entry<String, Object> taskEntry : tasksConfig.entrySet()) {
+        Map<String, Object> taskConfig = (Map<String, Object>) taskEntry.getValue();
+        String consumerClass = (String) taskConfig.get("consumerClass");
+        Integer consumerVersion = (Integer) taskConfig.get("consumerVersion");
+
+        if (consumerClass == null) {
+          continue;
+        }
+
+        insertTask(
+            db,
+            entry.getKey(),
+            appUrl,
+            taskEntry.getKey(),
+            consumerClass,
+            consumerVersion != null ? consumerVersion : 0,
+            (Map<String, Object>) taskConfig.get("options")
+        );
+      }
+    }
+  }
+
+  /**
+   * Writes tasks of the app to shared preferences in the format versioned task services read them in.
+   */
+  private void exportLegacyApp(SQLiteDatabase db, String appId) {
+    SharedPreferences preferences = getLegacyPreferences();
+    Cursor cursor = db.rawQuery("SELECT a.app_url, t.task_name, t.consumer_class, t.consumer_version, t.options"
+        + " FROM " + TASKS_TABLE + " t JOIN " + APPS_TABLE + " a ON t.app_id = a.app_id WHERE t.app_id = ?", new String[]{ appId });
+
+    try {
+      if (!cursor.moveToFirst()) {
+        preferences.edit().remove(appId).apply();
+        return;
+      }
+
+      JSONObject appConfig = new JSONObject();
+      JSONObject tasksConfig = new JSONObject();
+
+      appConfig.put("appUrl", cursor.getString(0));
+
+      do {
+        JSONObject taskConfig = new JSONObject();
+
+        taskConfig.put("name", cursor.getString(1));
+        taskConfig.put("consumerClass", cursor.getString(2));
+        taskConfig.put("consumerVersion", cursor.getInt(3));
+
+        if (!cursor.isNull(4)) {
+          taskConfig.put("options", new JSONObject(cursor.getString(4)));
+        }
+        tasksConfig.put(cursor.getString(1), taskConfig);
+      } while (cursor.moveToNext());
+
+      appConfig.put("tasks", tasksConfig);
+      preferences.edit().putString(appId, appConfig.toString()).apply();
+    } catch (JSONException e) {
+      Log.e(TAG, "Couldn't save tasks of app '" + appId + "' to shared preferences: " + e.getMessage());
+    } finally {
+      cursor.close();
+    }
+  }
+
+  private SharedPreferences getLegacyPreferences() {
+    return mContext.getSharedPreferences(LEGACY_SHARED_PREFERENCES_NAME, Context.MODE_PRIVATE);
+  }
+
+  private static Map<String, Object> jsonToMap(String jsonStr) {
+    try {
+      return jsonToMap(new JSONObject(jsonStr));
+    } catch (JSONException e) {
+      return new HashMap<>();
+    }
+  }
+
+  private static Map<String, Object> jsonToMap(JSONObject json) {
+    Map<String, Object> map = new HashMap<>();
+
+    try {
+      Iterator<?> keys = json.keys();
+
+      while (keys.hasNext()) {
+        String key = (String) keys.next();
+        Object value = jsonObjectToObject(json.get(key));
+
+        map.put(key, value);
+      }
+    } catch (JSONException e) {
+      e.printStackTrace();
+    }
+    return map;
+  }
+
+  private static List<Object> jsonToList(JSONArray json) {
+    List<Object> list = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < json.length(); i++) {
+        Object value = json.get(i);
+
+        if (value instanceof JSONArray) {
+          value = jsonToList((JSONArray) value);
+        } else if (value instanceof JSONObject) {
+          value = jsonToMap((JSONObject) value);
+        }
+        list.add(value);
+      }
+    } catch (JSONException e) {
+      e.printStackTrace();
+    }
+    return list;
+  }
+
+  private static Object jsonObjectToObject(Object json) {
+    if (json instanceof JSONObject) {
+      return jsonToMap((JSONObject) json);
+    }
+    if (json instanceof JSONArray) {
+      return jsonToList((JSONArray) json);
+    }
+    return json;
+  }
+
+  //endregion
+
+  static class TaskRecord {
+    final String appId;
+    final String appUrl;
+    final String taskName;
+    final String consumerClass;
+    final int consumerVersion;
+    final Map<String, Object> options;
+
+    private TaskRecord(String appId, String appUrl, String taskName, String consumerClass, int consumerVersion, Map<String, Object> options) {
+      this.appId = appId;
+      this.appUrl = appUrl;
+      this.taskName = taskName;
+      this.consumerClass = consumerClass;
+      this.consumerVersion = consumerVersion;
+      this.options = options;
+    }
+  }
+}
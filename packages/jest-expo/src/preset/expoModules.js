@@ -393,6 +393,7 @@ module.exports = {
           { key: 8, argumentsCount: 2, name: 'readDirectoryAsync' },
           { key: 9, argumentsCount: 3, name: 'downloadAsync' },
           { key: 10, argumentsCount: 1, name: 'moveAsync' },
+          { key: 11, argumentsCount: 2, name: 'setDownloadConcurrencyLimitsAsync' },
         ],
         ExponentGLObjectManager: [
           { key: 0, argumentsCount: 0, name: 'createContextAsync' },
@@ -654,6 +655,7 @@ module.exports = {
           readAsStringAsync: { type: 'function' },
           readDirectoryAsync: { type: 'function' },
           removeListeners: { type: 'function' },
+          setDownloadConcurrencyLimitsAsync: { type: 'function' },
           writeAsStringAsync: { type: 'function' },
         },
         ExponentMediaLibrary: {